@@ -0,0 +1,71 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.service.CachingStorageService;
+import com.example.ecommerce.service.CloudinaryStorageService;
+import com.example.ecommerce.service.ContentAddressedStorageService;
+import com.example.ecommerce.service.LocalStorageService;
+import com.example.ecommerce.service.StorageService;
+import com.example.ecommerce.service.WriteBackStorageService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    public StorageService storageService(@Value("${app.storage.type:local}") String type,
+                                         @Value("${app.storage.product-images-path}") String productImagesPath,
+                                         @Value("${app.storage.blobs-path:storage/blobs}") String blobsPath,
+                                         @Value("${app.storage.cloudinary.url:}") String cloudinaryUrl,
+                                         @Value("${app.storage.cloudinary.folder:}") String cloudinaryFolder,
+                                         @Value("${app.storage.sweeper.enabled:false}") boolean sweeperEnabled,
+                                         @Value("${app.storage.cache.enabled:true}") boolean cacheEnabled,
+                                         @Value("${app.storage.cache.path:storage/cache}") String cachePath,
+                                         @Value("${app.storage.cache.max-size:1GB}") DataSize cacheMaxSize,
+                                         @Value("${app.storage.write-back.enabled:true}") boolean writeBackEnabled,
+                                         @Value("${app.storage.write-back.path:storage/staging}") String stagingPath,
+                                         @Value("${app.storage.write-back.node-id:${HOSTNAME:local}}") String nodeId,
+                                         @Value("${app.storage.write-back.workers:4}") int writeBackWorkers,
+                                         @Value("${app.storage.write-back.poll-interval:2s}") Duration writeBackPollInterval,
+                                         @Value("${app.storage.write-back.lease:5m}") Duration writeBackLease,
+                                         @Value("${app.storage.write-back.max-backoff:10m}") Duration writeBackMaxBackoff,
+                                         JdbcTemplate jdbcTemplate,
+                                         PlatformTransactionManager transactionManager,
+                                         MeterRegistry meterRegistry) {
+        StorageService storage;
+        boolean remote;
+        switch (type) {
+            case "local" -> {
+                storage = new LocalStorageService(productImagesPath);
+                remote = false;
+            }
+            case "content-addressed" -> {
+                storage = new ContentAddressedStorageService(blobsPath, jdbcTemplate, transactionManager, meterRegistry);
+                remote = false;
+            }
+            case "cloudinary" -> {
+                if (sweeperEnabled && cloudinaryFolder.isBlank()) {
+                    throw new IllegalStateException(
+                        "app.storage.cloudinary.folder must be set when app.storage.sweeper.enabled is true");
+                }
+                CloudinaryStorageService cloudinary = new CloudinaryStorageService(cloudinaryUrl, cloudinaryFolder);
+                storage = writeBackEnabled
+                    ? new WriteBackStorageService(cloudinary, stagingPath, jdbcTemplate, nodeId, writeBackWorkers,
+                        writeBackPollInterval, writeBackLease, writeBackMaxBackoff, meterRegistry)
+                    : cloudinary;
+                remote = true;
+            }
+            default -> throw new IllegalStateException("Unsupported app.storage.type: " + type);
+        }
+        if (remote && cacheEnabled) {
+            storage = new CachingStorageService(storage, cachePath, cacheMaxSize.toBytes(), meterRegistry);
+        }
+        return storage;
+    }
+}
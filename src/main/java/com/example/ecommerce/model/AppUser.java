@@ -8,6 +8,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -18,7 +19,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 public class AppUser {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "app_users_id_seq")
+    @SequenceGenerator(name = "app_users_id_seq", sequenceName = "app_users_id_seq", allocationSize = 50)
     private Long id;
 
     @Email
@@ -50,6 +52,10 @@ public class AppUser {
     @Column(nullable = false)
     private boolean sellerVerified = false;
 
+    @Column(nullable = false)
+    @JsonIgnore
+    private int tokenVersion;
+
     @OneToOne(mappedBy = "user")
     private SellerProfile sellerProfile;
 
@@ -125,6 +131,14 @@ public class AppUser {
         this.sellerVerified = sellerVerified;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
     public SellerProfile getSellerProfile() {
         return sellerProfile;
     }
@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
@@ -12,7 +13,8 @@ import jakarta.persistence.Table;
 public class OrderShippingAddress {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_shipping_addresses_id_seq")
+    @SequenceGenerator(name = "order_shipping_addresses_id_seq", sequenceName = "order_shipping_addresses_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -2,11 +2,13 @@ package com.example.ecommerce.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
@@ -14,13 +16,17 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Formula;
 
 @Entity
 @Table(name = "products")
+@DynamicUpdate
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_id_seq")
+    @SequenceGenerator(name = "products_id_seq", sequenceName = "products_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -40,7 +46,16 @@ public class Product {
     @Column(nullable = false)
     private Integer stockQuantity;
 
-    @ManyToOne
+    @JsonIgnore
+    @Column(nullable = false)
+    private int stockSlots;
+
+    @JsonIgnore
+    @Formula("(CASE WHEN stock_slots > 0 THEN "
+        + "(SELECT COALESCE(SUM(s.quantity), 0) FROM product_stock_slots s WHERE s.product_id = id) END)")
+    private Integer slottedStockQuantity;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "seller_id")
     @JsonIgnore
     private AppUser seller;
@@ -78,11 +93,18 @@ public class Product {
     }
 
     public Integer getStockQuantity() {
-        return stockQuantity;
+        return slottedStockQuantity != null ? slottedStockQuantity : stockQuantity;
     }
 
     public void setStockQuantity(Integer stockQuantity) {
         this.stockQuantity = stockQuantity;
+        if (slottedStockQuantity != null) {
+            slottedStockQuantity = stockQuantity;
+        }
+    }
+
+    public int getStockSlots() {
+        return stockSlots;
     }
 
     public AppUser getSeller() {
@@ -8,6 +8,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.Instant;
 
@@ -16,14 +17,15 @@ import java.time.Instant;
 public class ProductImage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_images_id_seq")
+    @SequenceGenerator(name = "product_images_id_seq", sequenceName = "product_images_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
-    @Column(name = "storage_key", nullable = false, unique = true)
+    @Column(name = "storage_key", nullable = false)
     private String storageKey;
 
     @Column(name = "original_filename")
@@ -35,6 +37,9 @@ public class ProductImage {
     @Column(nullable = false)
     private Long size;
 
+    @Column(nullable = false)
+    private Integer position = 0;
+
     @Column(name = "created_at", nullable = false)
     private Instant createdAt = Instant.now();
 
@@ -86,6 +91,14 @@ public class ProductImage {
         this.size = size;
     }
 
+    public Integer getPosition() {
+        return position;
+    }
+
+    public void setPosition(Integer position) {
+        this.position = position;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -4,7 +4,19 @@ import com.example.ecommerce.model.Cart;
 import com.example.ecommerce.model.CartStatus;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUserIdAndStatus(Long userId, CartStatus status);
+
+    @Query("select distinct c from Cart c left join fetch c.items i left join fetch i.product p "
+        + "left join fetch p.seller s left join fetch s.sellerProfile "
+        + "where c.user.id = :userId and c.status = :status")
+    Optional<Cart> findWithItemsByUserIdAndStatus(@Param("userId") Long userId, @Param("status") CartStatus status);
+
+    @Modifying
+    @Query("update Cart c set c.status = :to where c.id = :id and c.status = :from")
+    int updateStatus(@Param("id") Long id, @Param("from") CartStatus from, @Param("to") CartStatus to);
 }
@@ -0,0 +1,34 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.model.OrderStatus;
+import java.time.Instant;
+
+public class OrderFilter {
+    private OrderStatus status;
+    private Instant createdFrom;
+    private Instant createdTo;
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public Instant getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public void setCreatedFrom(Instant createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+
+    public Instant getCreatedTo() {
+        return createdTo;
+    }
+
+    public void setCreatedTo(Instant createdTo) {
+        this.createdTo = createdTo;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.model.OrderItem;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+    @Query("select i from OrderItem i join fetch i.product where i.order.id in :orderIds order by i.id")
+    List<OrderItem> findWithProductByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+}
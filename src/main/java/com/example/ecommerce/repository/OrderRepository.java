@@ -1,7 +1,12 @@
 package com.example.ecommerce.repository;
 
 import com.example.ecommerce.model.Order;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
+    @Query("select o from Order o left join fetch o.shippingAddress where o.id = :id")
+    Optional<Order> findWithShippingAddressById(@Param("id") Long id);
 }
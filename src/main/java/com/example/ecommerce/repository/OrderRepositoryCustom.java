@@ -0,0 +1,9 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.model.Order;
+import java.time.Instant;
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+    List<Order> findPage(OrderFilter filter, Instant afterCreatedAt, Long afterId, int limit);
+}
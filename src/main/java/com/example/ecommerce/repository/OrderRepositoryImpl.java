@@ -0,0 +1,54 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.model.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Order> findPage(OrderFilter filter, Instant afterCreatedAt, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Order> query = cb.createQuery(Order.class);
+        Root<Order> order = query.from(Order.class);
+        order.fetch("shippingAddress", JoinType.LEFT);
+        Path<Long> id = order.get("id");
+        Path<Instant> createdAt = order.get("createdAt");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getStatus() != null) {
+            predicates.add(cb.equal(order.get("status"), filter.getStatus()));
+        }
+        if (filter.getCreatedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(createdAt, filter.getCreatedFrom()));
+        }
+        if (filter.getCreatedTo() != null) {
+            predicates.add(cb.lessThan(createdAt, filter.getCreatedTo()));
+        }
+        if (afterId != null) {
+            predicates.add(cb.or(
+                cb.lessThan(createdAt, afterCreatedAt),
+                cb.and(cb.equal(createdAt, afterCreatedAt), cb.lessThan(id, afterId))
+            ));
+        }
+
+        query.select(order)
+            .where(predicates.toArray(new Predicate[0]))
+            .orderBy(cb.desc(createdAt), cb.desc(id));
+        return entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+}
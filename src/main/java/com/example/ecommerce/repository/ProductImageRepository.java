@@ -5,9 +5,9 @@ import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
-    List<ProductImage> findByProductIdOrderByIdAsc(Long productId);
+    List<ProductImage> findByProductIdOrderByPositionAscIdAsc(Long productId);
 
-    List<ProductImage> findByProductIdInOrderByIdAsc(List<Long> productIds);
+    List<ProductImage> findByProductIdInOrderByPositionAscIdAsc(List<Long> productIds);
 
     void deleteByProductId(Long productId);
 }
@@ -0,0 +1,12 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.model.ProductImageVariant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ProductImageVariantRepository extends JpaRepository<ProductImageVariant, Long> {
+    List<ProductImageVariant> findByImageIdOrderByWidthAsc(Long imageId);
+
+    List<ProductImageVariant> findByImageIdIn(Collection<Long> imageIds);
+}
@@ -1,9 +1,15 @@
 package com.example.ecommerce.repository;
 
 import com.example.ecommerce.model.Product;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
     List<Product> findBySellerId(Long sellerId);
+
+    @Query("select p from Product p left join fetch p.seller s left join fetch s.sellerProfile where p.id in :ids")
+    List<Product> findAllWithSellerByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,20 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.model.Product;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.SortedMap;
+
+public interface ProductRepositoryCustom {
+    List<Product> findPage(ProductFilter filter, ProductSort sort, BigDecimal afterPrice, Long afterId, int limit);
+
+    List<Long> decrementStock(SortedMap<Long, Integer> quantitiesByProductId);
+
+    boolean configureStockSlots(Long productId, int slots);
+
+    void redistributeStockSlots(Long productId, int slots, int quantity);
+
+    List<Long> findSlottedProductIds();
+
+    boolean rebalanceStockSlots(Long productId);
+}
@@ -0,0 +1,220 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final String DECREMENT_STOCK_SQL =
+        "UPDATE products SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_slots = 0 AND stock_quantity >= ?";
+    private static final String DECREMENT_ANY_SLOT_SQL =
+        "UPDATE product_stock_slots SET quantity = quantity - ? WHERE product_id = ? AND quantity >= ? AND slot = "
+            + "(SELECT slot FROM product_stock_slots WHERE product_id = ? AND quantity >= ? "
+            + "ORDER BY random() LIMIT 1 FOR UPDATE SKIP LOCKED)";
+    private static final String LOCK_SLOTS_SQL =
+        "SELECT slot, quantity FROM product_stock_slots WHERE product_id = ? ORDER BY slot FOR UPDATE";
+    private static final String LOCK_FREE_SLOTS_SQL =
+        "SELECT slot, quantity FROM product_stock_slots WHERE product_id = ? ORDER BY slot FOR UPDATE SKIP LOCKED";
+    private static final String SET_SLOT_SQL =
+        "UPDATE product_stock_slots SET quantity = ? WHERE product_id = ? AND slot = ?";
+    private static final String DELETE_SLOTS_SQL = "DELETE FROM product_stock_slots WHERE product_id = ?";
+    private static final String INSERT_SLOT_SQL =
+        "INSERT INTO product_stock_slots (product_id, slot, quantity) VALUES (?, ?, ?)";
+    private static final String LOCK_PRODUCT_SQL =
+        "SELECT stock_slots, stock_quantity FROM products WHERE id = ? FOR UPDATE";
+    private static final String SET_STOCK_SLOTS_SQL =
+        "UPDATE products SET stock_slots = ?, stock_quantity = ? WHERE id = ?";
+    private static final String SLOTTED_IDS_SQL = "SELECT id FROM products WHERE stock_slots > 0 ORDER BY id";
+    private static final String SYNC_SLOTTED_TOTAL_SQL =
+        "UPDATE products p SET stock_quantity = s.total FROM "
+            + "(SELECT COALESCE(SUM(quantity), 0) AS total FROM product_stock_slots WHERE product_id = ?) s "
+            + "WHERE p.id = ? AND p.stock_slots > 0 AND p.stock_quantity <> s.total";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Product> findPage(ProductFilter filter, ProductSort sort, BigDecimal afterPrice, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> product = query.from(Product.class);
+        Path<Long> id = product.get("id");
+        Path<BigDecimal> price = product.get("price");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getSellerId() != null) {
+            predicates.add(cb.equal(product.get("seller").get("id"), filter.getSellerId()));
+        }
+        if (filter.getMinPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(price, filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(price, filter.getMaxPrice()));
+        }
+        if (filter.isInStock()) {
+            predicates.add(cb.greaterThan(product.<Integer>get("stockQuantity"), 0));
+        }
+
+        switch (sort) {
+            case PRICE_ASC -> {
+                if (afterId != null) {
+                    predicates.add(cb.or(
+                        cb.greaterThan(price, afterPrice),
+                        cb.and(cb.equal(price, afterPrice), cb.greaterThan(id, afterId))
+                    ));
+                }
+                query.orderBy(cb.asc(price), cb.asc(id));
+            }
+            case PRICE_DESC -> {
+                if (afterId != null) {
+                    predicates.add(cb.or(
+                        cb.lessThan(price, afterPrice),
+                        cb.and(cb.equal(price, afterPrice), cb.lessThan(id, afterId))
+                    ));
+                }
+                query.orderBy(cb.desc(price), cb.desc(id));
+            }
+            default -> {
+                if (afterId != null) {
+                    predicates.add(cb.lessThan(id, afterId));
+                }
+                query.orderBy(cb.desc(id));
+            }
+        }
+
+        query.select(product).where(predicates.toArray(new Predicate[0]));
+        return entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
+    @Override
+    public List<Long> decrementStock(SortedMap<Long, Integer> quantitiesByProductId) {
+        List<Long> productIds = new ArrayList<>(quantitiesByProductId.size());
+        List<Object[]> batchArgs = new ArrayList<>(quantitiesByProductId.size());
+        for (Map.Entry<Long, Integer> entry : quantitiesByProductId.entrySet()) {
+            productIds.add(entry.getKey());
+            batchArgs.add(new Object[] {entry.getValue(), entry.getKey(), entry.getValue()});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, batchArgs);
+        List<Long> rejected = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            Long productId = productIds.get(i);
+            if (updated[i] == 0 && !decrementSlottedStock(productId, quantitiesByProductId.get(productId))) {
+                rejected.add(productId);
+            }
+        }
+        return rejected;
+    }
+
+    @Override
+    public boolean configureStockSlots(Long productId, int slots) {
+        List<int[]> product = jdbcTemplate.query(LOCK_PRODUCT_SQL,
+            (rs, rowNum) -> new int[] {rs.getInt(1), rs.getInt(2)}, productId);
+        if (product.isEmpty()) {
+            return false;
+        }
+        int quantity = product.get(0)[1];
+        if (product.get(0)[0] > 0) {
+            quantity = lockSlots(productId, LOCK_SLOTS_SQL).stream().mapToInt(slot -> slot[1]).sum();
+        }
+        jdbcTemplate.update(DELETE_SLOTS_SQL, productId);
+        insertSlots(productId, slots, quantity);
+        jdbcTemplate.update(SET_STOCK_SLOTS_SQL, slots, quantity, productId);
+        return true;
+    }
+
+    @Override
+    public void redistributeStockSlots(Long productId, int slots, int quantity) {
+        lockSlots(productId, LOCK_SLOTS_SQL);
+        jdbcTemplate.update(DELETE_SLOTS_SQL, productId);
+        insertSlots(productId, slots, quantity);
+    }
+
+    @Override
+    public List<Long> findSlottedProductIds() {
+        return jdbcTemplate.queryForList(SLOTTED_IDS_SQL, Long.class);
+    }
+
+    @Override
+    public boolean rebalanceStockSlots(Long productId) {
+        List<int[]> free = lockSlots(productId, LOCK_FREE_SLOTS_SQL);
+        boolean rebalanced = false;
+        if (free.size() > 1) {
+            int min = free.stream().mapToInt(slot -> slot[1]).min().getAsInt();
+            int max = free.stream().mapToInt(slot -> slot[1]).max().getAsInt();
+            if (max - min > 1) {
+                int total = free.stream().mapToInt(slot -> slot[1]).sum();
+                List<Object[]> batchArgs = new ArrayList<>(free.size());
+                for (int i = 0; i < free.size(); i++) {
+                    batchArgs.add(new Object[] {share(total, free.size(), i), productId, free.get(i)[0]});
+                }
+                jdbcTemplate.batchUpdate(SET_SLOT_SQL, batchArgs);
+                rebalanced = true;
+            }
+        }
+        jdbcTemplate.update(SYNC_SLOTTED_TOTAL_SQL, productId, productId);
+        return rebalanced;
+    }
+
+    private boolean decrementSlottedStock(Long productId, int quantity) {
+        if (jdbcTemplate.update(DECREMENT_ANY_SLOT_SQL, quantity, productId, quantity, productId, quantity) > 0) {
+            return true;
+        }
+        List<int[]> slots = lockSlots(productId, LOCK_SLOTS_SQL);
+        if (slots.stream().mapToInt(slot -> slot[1]).sum() < quantity) {
+            return false;
+        }
+        List<Object[]> batchArgs = new ArrayList<>();
+        int remaining = quantity;
+        for (int[] slot : slots) {
+            if (remaining == 0) {
+                break;
+            }
+            int taken = Math.min(slot[1], remaining);
+            if (taken > 0) {
+                batchArgs.add(new Object[] {slot[1] - taken, productId, slot[0]});
+                remaining -= taken;
+            }
+        }
+        jdbcTemplate.batchUpdate(SET_SLOT_SQL, batchArgs);
+        return true;
+    }
+
+    private List<int[]> lockSlots(Long productId, String sql) {
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new int[] {rs.getInt(1), rs.getInt(2)}, productId);
+    }
+
+    private void insertSlots(Long productId, int slots, int quantity) {
+        if (slots == 0) {
+            return;
+        }
+        List<Object[]> batchArgs = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            batchArgs.add(new Object[] {productId, i, share(quantity, slots, i)});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SLOT_SQL, batchArgs);
+    }
+
+    private static int share(int total, int slots, int index) {
+        return total / slots + (index < total % slots ? 1 : 0);
+    }
+}
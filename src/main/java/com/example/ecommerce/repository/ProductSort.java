@@ -0,0 +1,7 @@
+package com.example.ecommerce.repository;
+
+public enum ProductSort {
+    NEWEST,
+    PRICE_ASC,
+    PRICE_DESC
+}
@@ -1,7 +1,10 @@
 package com.example.ecommerce.repository;
 
 import com.example.ecommerce.model.SellerOrder;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface SellerOrderRepository extends JpaRepository<SellerOrder, Long> {
+    List<SellerOrder> findByOrderIdInOrderByIdAsc(Collection<Long> orderIds);
 }
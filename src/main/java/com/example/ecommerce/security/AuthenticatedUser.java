@@ -0,0 +1,47 @@
+package com.example.ecommerce.security;
+
+import com.example.ecommerce.model.Role;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+public class AuthenticatedUser implements AuthenticatedPrincipal {
+    private final Long id;
+    private final String email;
+    private final Role role;
+    private final boolean sellerVerified;
+
+    public AuthenticatedUser(Long id, String email, Role role, boolean sellerVerified) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+        this.sellerVerified = sellerVerified;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public boolean isSellerVerified() {
+        return sellerVerified;
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
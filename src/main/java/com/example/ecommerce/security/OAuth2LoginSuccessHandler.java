@@ -1,5 +1,6 @@
 package com.example.ecommerce.security;
 
+import com.example.ecommerce.model.AppUser;
 import com.example.ecommerce.service.AppUserService;
 import com.example.ecommerce.service.JwtService;
 import com.example.ecommerce.web.dto.AuthResponse;
@@ -9,7 +10,6 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
@@ -44,9 +44,8 @@ public class OAuth2LoginSuccessHandler implements AuthenticationSuccessHandler {
             return;
         }
 
-        appUserService.getOrCreateOauthUser(email);
-        UserDetails userDetails = appUserService.loadUserByUsername(email);
-        String token = jwtService.generateToken(userDetails);
+        AppUser user = appUserService.getOrCreateOauthUser(email);
+        String token = jwtService.generateToken(user);
 
         response.setContentType("application/json");
         response.getWriter().write(objectMapper.writeValueAsString(new AuthResponse(token)));
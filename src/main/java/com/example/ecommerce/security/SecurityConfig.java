@@ -30,7 +30,8 @@ public class SecurityConfig {
         .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED))
         .authorizeHttpRequests(auth -> auth
             .requestMatchers("/api/auth/**", "/actuator/health", "/oauth2/**", "/login/oauth2/**").permitAll()
-            .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/products", "/api/products/*")
+            .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/products", "/api/products/*",
+                "/api/products/images/*/*")
             .permitAll()
             .anyRequest().authenticated())
         .oauth2Login(oauth2 -> oauth2.successHandler(oAuth2LoginSuccessHandler));
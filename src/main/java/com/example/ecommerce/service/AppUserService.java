@@ -11,6 +11,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
@@ -18,10 +19,14 @@ public class AppUserService implements UserDetailsService {
 
     private final AppUserRepository appUserRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
-    public AppUserService(AppUserRepository appUserRepository, PasswordEncoder passwordEncoder) {
+    public AppUserService(AppUserRepository appUserRepository,
+                          PasswordEncoder passwordEncoder,
+                          TokenVersionRegistry tokenVersionRegistry) {
         this.appUserRepository = appUserRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tokenVersionRegistry = tokenVersionRegistry;
     }
 
     public AppUser register(String email, String rawPassword) {
@@ -59,6 +64,11 @@ public class AppUserService implements UserDetailsService {
         return appUserRepository.findByEmail(email);
     }
 
+    public AppUser getReference(Long id) {
+        return appUserRepository.getReferenceById(id);
+    }
+
+    @Transactional
     public AppUser verifySeller(Long id) {
         AppUser user = appUserRepository.findById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
@@ -66,7 +76,10 @@ public class AppUserService implements UserDetailsService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User is not a seller");
         }
         user.setSellerVerified(true);
-        return appUserRepository.save(user);
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        AppUser saved = appUserRepository.save(user);
+        tokenVersionRegistry.evictAfterCommit(saved.getId());
+        return saved;
     }
 
     public java.util.List<AppUser> listSellers() {
@@ -0,0 +1,254 @@
+package com.example.ecommerce.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class CachingStorageService implements StorageService, DisposableBean {
+
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final StorageService delegate;
+    private final Path cacheLocation;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final ConcurrentHashMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    private long totalBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bytesServed;
+    private final Timer upstreamLatency;
+
+    public CachingStorageService(StorageService delegate, String cachePath, long maxBytes, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.cacheLocation = Path.of(cachePath).toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.hits = Counter.builder("storage.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("storage.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.bytesServed = Counter.builder("storage.cache.served").baseUnit("bytes").register(meterRegistry);
+        this.upstreamLatency = Timer.builder("storage.cache.upstream.latency").register(meterRegistry);
+        Gauge.builder("storage.cache.size", this, CachingStorageService::currentBytes)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        try {
+            Files.createDirectories(cacheLocation);
+            loadExistingEntries();
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not initialize storage cache", e);
+        }
+    }
+
+    @Override
+    public StoredFile store(Path source, String originalFilename, String contentType) {
+        return delegate.store(source, originalFilename, contentType);
+    }
+
+    @Override
+    public Resource loadAsResource(String key) {
+        return new FileSystemResource(cachedFile(key));
+    }
+
+    @Override
+    public Optional<Path> resolveLocalFile(String key) {
+        return Optional.of(cachedFile(key));
+    }
+
+    @Override
+    public void delete(String key) {
+        delegate.delete(key);
+        String name = cacheFileName(key);
+        synchronized (this) {
+            Long size = entries.remove(name);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        }
+        deleteQuietly(cacheLocation.resolve(name));
+    }
+
+    @Override
+    public void forEachKey(Instant storedBefore, Consumer<String> action) {
+        delegate.forEachKey(storedBefore, action);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (delegate instanceof DisposableBean disposable) {
+            disposable.destroy();
+        }
+    }
+
+    private Path cachedFile(String key) {
+        String name = cacheFileName(key);
+        Long size;
+        synchronized (this) {
+            size = entries.get(name);
+        }
+        if (size != null) {
+            Path path = cacheLocation.resolve(name);
+            if (Files.isReadable(path)) {
+                hits.increment();
+                bytesServed.increment(size);
+                return path;
+            }
+            synchronized (this) {
+                if (entries.remove(name) != null) {
+                    totalBytes -= size;
+                }
+            }
+        }
+
+        misses.increment();
+        CompletableFuture<Path> fetch = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(name, fetch);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            Path path = fetch(key, name);
+            fetch.complete(path);
+            return path;
+        } catch (RuntimeException ex) {
+            fetch.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(name, fetch);
+        }
+    }
+
+    private Path fetch(String key, String name) {
+        Path partial = null;
+        try {
+            partial = Files.createTempFile(cacheLocation, name, PARTIAL_SUFFIX);
+            long size;
+            long started = System.nanoTime();
+            try (InputStream in = delegate.loadAsResource(key).getInputStream()) {
+                size = Files.copy(in, partial, StandardCopyOption.REPLACE_EXISTING);
+            }
+            upstreamLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            Path target = cacheLocation.resolve(name);
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            admit(name, size);
+            return target;
+        } catch (FileNotFoundException e) {
+            deleteQuietly(partial);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found", e);
+        } catch (IOException e) {
+            deleteQuietly(partial);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to read image", e);
+        }
+    }
+
+    private void admit(String name, long size) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = entries.put(name, size);
+            totalBytes += size - (previous == null ? 0 : previous);
+            Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(name)) {
+                    continue;
+                }
+                totalBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        for (String victim : evicted) {
+            deleteQuietly(cacheLocation.resolve(victim));
+        }
+    }
+
+    private void loadExistingEntries() throws IOException {
+        try (Stream<Path> files = Files.list(cacheLocation)) {
+            List<Path> cached = new ArrayList<>();
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(PARTIAL_SUFFIX)) {
+                    deleteQuietly(file);
+                } else if (Files.isRegularFile(file)) {
+                    cached.add(file);
+                }
+            }
+            cached.sort(Comparator.comparingLong(CachingStorageService::lastModified));
+            for (Path file : cached) {
+                admit(file.getFileName().toString(), Files.size(file));
+            }
+        }
+    }
+
+    private synchronized long currentBytes() {
+        return totalBytes;
+    }
+
+    private static Path await(CompletableFuture<Path> fetch) {
+        try {
+            return fetch.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // a stale cache file is harmless; it is overwritten on the next fetch
+        }
+    }
+
+    private static String cacheFileName(String key) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
@@ -3,25 +3,24 @@ package com.example.ecommerce.service;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import java.util.UUID;
+import java.util.function.Consumer;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpStatus;
-import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
-@Service
-@ConditionalOnProperty(name = "app.storage.type", havingValue = "cloudinary")
-public class CloudinaryStorageService implements StorageService {
+public class CloudinaryStorageService implements KeyAssigningStorageService {
 
     private final Cloudinary cloudinary;
     private final String folder;
 
-    public CloudinaryStorageService(@Value("${app.storage.cloudinary.url:}") String cloudinaryUrl,
-                                    @Value("${app.storage.cloudinary.folder:}") String folder) {
+    public CloudinaryStorageService(String cloudinaryUrl, String folder) {
         if (cloudinaryUrl == null || cloudinaryUrl.isBlank()) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Cloudinary URL is not configured");
         }
@@ -30,24 +29,36 @@ public class CloudinaryStorageService implements StorageService {
     }
 
     @Override
-    public StoredFile store(MultipartFile file) {
-        if (file == null || file.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Image file is required");
-        }
-        String contentType = file.getContentType();
+    public StoredFile store(Path source, String originalFilename, String contentType) {
         if (contentType == null || !contentType.startsWith("image/")) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only image uploads are supported");
         }
         try {
-            Map<String, Object> options = ObjectUtils.asMap("resource_type", "image");
-            if (folder != null && !folder.isBlank()) {
-                options.put("folder", folder);
-            }
-            Map<?, ?> uploadResult = cloudinary.uploader().upload(file.getBytes(), options);
-            String publicId = (String) uploadResult.get("public_id");
-            Number bytes = (Number) uploadResult.get("bytes");
-            long size = bytes == null ? file.getSize() : bytes.longValue();
-            return new StoredFile(publicId, file.getOriginalFilename(), contentType, size);
+            Map<?, ?> uploadResult = cloudinary.uploader().upload(source.toFile(), uploadOptions());
+            return toStoredFile(uploadResult, originalFilename, contentType, Files.size(source));
+        } catch (IOException ex) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to upload image", ex);
+        } catch (RuntimeException ex) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Cloudinary upload failed", ex);
+        }
+    }
+
+    @Override
+    public String generateKey(String originalFilename) {
+        String id = UUID.randomUUID().toString();
+        return folder == null || folder.isBlank() ? id : folder + "/" + id;
+    }
+
+    @Override
+    public StoredFile storeAs(String key, Path source, String originalFilename, String contentType) {
+        try {
+            Map<String, Object> options = ObjectUtils.asMap(
+                "resource_type", "image",
+                "public_id", key,
+                "overwrite", true
+            );
+            Map<?, ?> uploadResult = cloudinary.uploader().upload(source.toFile(), options);
+            return toStoredFile(uploadResult, originalFilename, contentType, Files.size(source));
         } catch (IOException ex) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to upload image", ex);
         } catch (RuntimeException ex) {
@@ -75,4 +86,51 @@ public class CloudinaryStorageService implements StorageService {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Cloudinary delete failed", ex);
         }
     }
+
+    @Override
+    public void forEachKey(Instant storedBefore, Consumer<String> action) {
+        if (folder == null || folder.isBlank()) {
+            throw new IllegalStateException("Refusing to list Cloudinary images without a configured folder");
+        }
+        String nextCursor = null;
+        do {
+            Map<String, Object> options = ObjectUtils.asMap(
+                "type", "upload", "resource_type", "image", "max_results", 500, "prefix", folder + "/");
+            if (nextCursor != null) {
+                options.put("next_cursor", nextCursor);
+            }
+            Map<?, ?> response;
+            try {
+                response = cloudinary.api().resources(options);
+            } catch (Exception ex) {
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to list images", ex);
+            }
+            List<?> resources = (List<?>) response.get("resources");
+            if (resources != null) {
+                for (Object resource : resources) {
+                    Map<?, ?> attributes = (Map<?, ?>) resource;
+                    Object createdAt = attributes.get("created_at");
+                    if (createdAt != null && Instant.parse(createdAt.toString()).isBefore(storedBefore)) {
+                        action.accept((String) attributes.get("public_id"));
+                    }
+                }
+            }
+            nextCursor = (String) response.get("next_cursor");
+        } while (nextCursor != null);
+    }
+
+    private Map<String, Object> uploadOptions() {
+        Map<String, Object> options = ObjectUtils.asMap("resource_type", "image");
+        if (folder != null && !folder.isBlank()) {
+            options.put("folder", folder);
+        }
+        return options;
+    }
+
+    private static StoredFile toStoredFile(Map<?, ?> uploadResult, String originalFilename, String contentType, long fallbackSize) {
+        String publicId = (String) uploadResult.get("public_id");
+        Number bytes = (Number) uploadResult.get("bytes");
+        long size = bytes == null ? fallbackSize : bytes.longValue();
+        return new StoredFile(publicId, originalFilename, contentType, size);
+    }
 }
@@ -0,0 +1,223 @@
+package com.example.ecommerce.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+public class ContentAddressedStorageService implements StorageService {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final int LOCK_STRIPES = 64;
+
+    private static final String ACQUIRE_SQL =
+        "INSERT INTO storage_blobs (hash, size, ref_count, created_at) VALUES (?, ?, 1, now()) "
+            + "ON CONFLICT (hash) DO UPDATE SET ref_count = storage_blobs.ref_count + 1 "
+            + "RETURNING ref_count";
+    private static final String RELEASE_SQL =
+        "UPDATE storage_blobs SET ref_count = ref_count - 1 WHERE hash = ? AND ref_count > 0 RETURNING ref_count, size";
+    private static final String REMOVE_SQL =
+        "DELETE FROM storage_blobs WHERE hash = ? AND ref_count = 0";
+    private static final String EXISTS_SQL = "SELECT COUNT(*) FROM storage_blobs WHERE hash = ?";
+
+    private final Path rootLocation;
+    private final Path tempLocation;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate releaseTemplate;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final AtomicLong logicalBytes = new AtomicLong();
+    private final AtomicLong physicalBytes = new AtomicLong();
+
+    public ContentAddressedStorageService(String rootPath,
+                                          JdbcTemplate jdbcTemplate,
+                                          PlatformTransactionManager transactionManager,
+                                          MeterRegistry meterRegistry) {
+        this.rootLocation = Path.of(rootPath).toAbsolutePath().normalize();
+        this.tempLocation = rootLocation.resolve("tmp");
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.releaseTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        try {
+            Files.createDirectories(tempLocation);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not initialize storage", e);
+        }
+        jdbcTemplate.query("SELECT COALESCE(SUM(size * ref_count), 0), COALESCE(SUM(size), 0) FROM storage_blobs", rs -> {
+            logicalBytes.set(rs.getLong(1));
+            physicalBytes.set(rs.getLong(2));
+        });
+        Gauge.builder("storage.blobs.logical", logicalBytes, AtomicLong::get)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("storage.blobs.physical", physicalBytes, AtomicLong::get)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("storage.dedup.saved", this, storage -> storage.logicalBytes.get() - storage.physicalBytes.get())
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("storage.dedup.ratio", this, ContentAddressedStorageService::dedupRatio)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public StoredFile store(Path source, String originalFilename, String contentType) {
+        if (contentType == null || !contentType.startsWith("image/")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only image uploads are supported");
+        }
+        try (InputStream in = Files.newInputStream(source)) {
+            return store(in, StringUtils.cleanPath(originalFilename), contentType);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to store file", e);
+        }
+    }
+
+    @Override
+    public Resource loadAsResource(String key) {
+        return resolveLocalFile(key)
+            .<Resource>map(FileSystemResource::new)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found"));
+    }
+
+    @Override
+    public Optional<Path> resolveLocalFile(String key) {
+        if (!KEY_PATTERN.matcher(key).matches()) {
+            return Optional.empty();
+        }
+        Path file = blobPath(key);
+        return Files.isReadable(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    @Override
+    public void delete(String key) {
+        if (!KEY_PATTERN.matcher(key).matches()) {
+            return;
+        }
+        long[] released;
+        synchronized (lockFor(key)) {
+            released = releaseTemplate.execute(status -> {
+                List<long[]> rows = jdbcTemplate.query(RELEASE_SQL,
+                    (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2), 0}, key);
+                if (rows.isEmpty()) {
+                    return null;
+                }
+                long[] row = rows.get(0);
+                if (row[0] == 0 && jdbcTemplate.update(REMOVE_SQL, key) == 1) {
+                    row[2] = 1;
+                }
+                return row;
+            });
+        }
+        if (released == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            logicalBytes.addAndGet(-released[1]);
+            if (released[2] == 1) {
+                removeBlobFile(key, released[1]);
+            }
+        });
+    }
+
+    private void removeBlobFile(String key, long size) {
+        synchronized (lockFor(key)) {
+            Integer remaining = jdbcTemplate.queryForObject(EXISTS_SQL, Integer.class, key);
+            if (remaining != null && remaining > 0) {
+                return;
+            }
+            physicalBytes.addAndGet(-size);
+            try {
+                Files.deleteIfExists(blobPath(key));
+            } catch (IOException e) {
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to delete file", e);
+            }
+        }
+    }
+
+    @Override
+    public void forEachKey(Instant storedBefore, Consumer<String> action) {
+        jdbcTemplate.query("SELECT hash FROM storage_blobs WHERE created_at < ? ORDER BY hash",
+            rs -> {
+                action.accept(rs.getString(1));
+            },
+            Timestamp.from(storedBefore));
+    }
+
+    private StoredFile store(InputStream in, String originalFilename, String contentType) throws IOException {
+        Path temp = Files.createTempFile(tempLocation, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (DigestInputStream digestIn = new DigestInputStream(in, digest);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                size = digestIn.transferTo(out);
+            }
+            String key = HexFormat.of().formatHex(digest.digest());
+            Path destination = blobPath(key);
+            synchronized (lockFor(key)) {
+                Integer refCount = transactionTemplate.execute(
+                    status -> jdbcTemplate.queryForObject(ACQUIRE_SQL, Integer.class, key, size));
+                logicalBytes.addAndGet(size);
+                if (refCount != null && refCount == 1) {
+                    physicalBytes.addAndGet(size);
+                }
+                if (!Files.exists(destination)) {
+                    Files.createDirectories(destination.getParent());
+                    Files.move(temp, destination, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            return new StoredFile(key, originalFilename, contentType, size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path blobPath(String key) {
+        return rootLocation.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private Object lockFor(String key) {
+        return locks[Integer.parseInt(key.substring(0, 2), 16) % LOCK_STRIPES];
+    }
+
+    private double dedupRatio() {
+        long physical = physicalBytes.get();
+        return physical == 0 ? 1.0 : (double) logicalBytes.get() / physical;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.ecommerce.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final String CLAIM_SQL =
+        "INSERT INTO idempotency_keys (user_id, idempotency_key, request_hash, created_at, expires_at) "
+            + "VALUES (?, ?, ?, now(), ?) "
+            + "ON CONFLICT (user_id, idempotency_key) DO UPDATE SET request_hash = EXCLUDED.request_hash, "
+            + "order_id = NULL, created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at "
+            + "WHERE idempotency_keys.expires_at <= now()";
+    private static final String FIND_SQL =
+        "SELECT request_hash, order_id FROM idempotency_keys "
+            + "WHERE user_id = ? AND idempotency_key = ? AND expires_at > now()";
+    private static final String COMPLETE_SQL =
+        "UPDATE idempotency_keys SET order_id = ? WHERE user_id = ? AND idempotency_key = ?";
+    private static final String PURGE_SQL = "DELETE FROM idempotency_keys WHERE expires_at <= now()";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration window;
+    private final Cache<String, Completed> completed;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate,
+                            @Value("${app.idempotency.window:24h}") Duration window,
+                            @Value("${app.idempotency.cache.max-size:100000}") long maxSize,
+                            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.window = window;
+        this.completed = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(window)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "idempotencyKeys");
+    }
+
+    public Optional<Long> findCompleted(Long userId, String key, String requestHash) {
+        Completed cached = completed.getIfPresent(scope(userId, key));
+        if (cached != null) {
+            return Optional.of(verified(cached, requestHash));
+        }
+        List<Completed> rows = jdbcTemplate.query(FIND_SQL,
+            (rs, rowNum) -> new Completed(rs.getString(1), rs.getObject(2, Long.class)), userId, key);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Completed row = rows.get(0);
+        if (row.orderId == null) {
+            verified(row, requestHash);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A request with this idempotency key is in progress");
+        }
+        completed.put(scope(userId, key), row);
+        return Optional.of(verified(row, requestHash));
+    }
+
+    public boolean tryLock(Long userId, String key) {
+        return inFlight.add(scope(userId, key));
+    }
+
+    public void unlock(Long userId, String key) {
+        inFlight.remove(scope(userId, key));
+    }
+
+    public boolean claim(Long userId, String key, String requestHash) {
+        return jdbcTemplate.update(CLAIM_SQL, userId, key, requestHash, Timestamp.from(Instant.now().plus(window))) > 0;
+    }
+
+    public void complete(Long userId, String key, String requestHash, Long orderId) {
+        jdbcTemplate.update(COMPLETE_SQL, orderId, userId, key);
+        Completed entry = new Completed(requestHash, orderId);
+        TransactionCallbacks.afterCommit(() -> completed.put(scope(userId, key), entry));
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update(PURGE_SQL);
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private static Long verified(Completed entry, String requestHash) {
+        if (!entry.requestHash.equals(requestHash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency key was already used with a different request");
+        }
+        return entry.orderId;
+    }
+
+    private static String scope(Long userId, String key) {
+        return userId + ":" + key;
+    }
+
+    private static final class Completed {
+        private final String requestHash;
+        private final Long orderId;
+
+        private Completed(String requestHash, Long orderId) {
+            this.requestHash = requestHash;
+            this.orderId = orderId;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.model.ProductImage;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public final class ImageFingerprint {
+
+    private static final int LENGTH_BYTES = 8;
+
+    private ImageFingerprint() {
+    }
+
+    public static String of(ProductImage image) {
+        return of(image.getStorageKey(), image.getSize(), image.getCreatedAt().toEpochMilli());
+    }
+
+    public static String of(String storageKey, long size, long createdAtMillis) {
+        String source = storageKey + ":" + size + ":" + createdAtMillis;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, LENGTH_BYTES);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    public static boolean matches(String expected, String fingerprint) {
+        return MessageDigest.isEqual(
+            expected.getBytes(StandardCharsets.US_ASCII),
+            fingerprint.getBytes(StandardCharsets.US_ASCII)
+        );
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.model.ProductImage;
+
+public class ImageMetadata {
+    private final long id;
+    private final String storageKey;
+    private final String contentType;
+    private final long size;
+    private final long createdAtMillis;
+    private final String fingerprint;
+
+    public ImageMetadata(long id, String storageKey, String contentType, long size, long createdAtMillis) {
+        this.id = id;
+        this.storageKey = storageKey;
+        this.contentType = contentType;
+        this.size = size;
+        this.createdAtMillis = createdAtMillis;
+        this.fingerprint = ImageFingerprint.of(storageKey, size, createdAtMillis);
+    }
+
+    public static ImageMetadata of(ProductImage image) {
+        return new ImageMetadata(
+            image.getId(),
+            image.getStorageKey(),
+            image.getContentType(),
+            image.getSize(),
+            image.getCreatedAt().toEpochMilli()
+        );
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getStorageKey() {
+        return storageKey;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.model.ProductImage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ImageMetadataCache {
+
+    private final AtomicReferenceArray<ImageMetadata> slots;
+    private final int mask;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ImageMetadataCache(@Value("${app.images.metadata-cache.size:65536}") int size,
+                              MeterRegistry meterRegistry) {
+        int capacity = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.hits = Counter.builder("images.metadata.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("images.metadata.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    public ImageMetadata get(long imageId, LongFunction<ImageMetadata> loader) {
+        int slot = slot(imageId);
+        ImageMetadata cached = slots.get(slot);
+        if (cached != null && cached.getId() == imageId) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        ImageMetadata loaded = loader.apply(imageId);
+        slots.set(slot, loaded);
+        return loaded;
+    }
+
+    public void putAfterCommit(List<ProductImage> images) {
+        List<ImageMetadata> metadata = images.stream().map(ImageMetadata::of).toList();
+        TransactionCallbacks.afterCommit(() -> metadata.forEach(entry -> slots.set(slot(entry.getId()), entry)));
+    }
+
+    public void evictAfterCommit(Collection<Long> imageIds) {
+        List<Long> ids = List.copyOf(imageIds);
+        TransactionCallbacks.afterCommit(() -> ids.forEach(this::evict));
+    }
+
+    private void evict(long imageId) {
+        int slot = slot(imageId);
+        ImageMetadata cached = slots.get(slot);
+        if (cached != null && cached.getId() == imageId) {
+            slots.compareAndSet(slot, cached, null);
+        }
+    }
+
+    private int slot(long imageId) {
+        return (int) imageId & mask;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.ecommerce.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+@Component
+public class ImageUploader {
+
+    private final StorageService storageService;
+    private final StorageOutbox storageOutbox;
+    private final UploadStager uploadStager;
+    private final ThreadPoolExecutor executor;
+    private final Timer batchTime;
+
+    public ImageUploader(StorageService storageService,
+                         StorageOutbox storageOutbox,
+                         UploadStager uploadStager,
+                         @Value("${app.storage.upload.workers:8}") int workers,
+                         @Value("${app.storage.upload.queue-capacity:64}") int queueCapacity,
+                         MeterRegistry meterRegistry) {
+        this.storageService = storageService;
+        this.storageOutbox = storageOutbox;
+        this.uploadStager = uploadStager;
+        this.executor = new ThreadPoolExecutor(
+            workers,
+            workers,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("image-upload-"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.batchTime = Timer.builder("storage.upload.batch").register(meterRegistry);
+    }
+
+    public List<StoredFile> uploadAll(List<MultipartFile> files) {
+        long started = System.nanoTime();
+        List<CompletableFuture<StoredFile>> uploads = new ArrayList<>(files.size());
+        AtomicLong requestBytes = new AtomicLong();
+        RuntimeException failure = null;
+        try {
+            for (MultipartFile file : files) {
+                uploads.add(CompletableFuture.supplyAsync(() -> upload(file, requestBytes), executor));
+            }
+        } catch (RejectedExecutionException ex) {
+            failure = new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many uploads in progress, try again later", ex);
+        }
+
+        List<StoredFile> stored = new ArrayList<>(files.size());
+        for (CompletableFuture<StoredFile> upload : uploads) {
+            try {
+                stored.add(upload.join());
+            } catch (CompletionException ex) {
+                if (failure == null) {
+                    failure = ex.getCause() instanceof RuntimeException cause
+                        ? cause
+                        : new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to store file", ex.getCause());
+                }
+            }
+        }
+        batchTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        if (failure != null) {
+            deleteAll(stored);
+            throw failure;
+        }
+        return stored;
+    }
+
+    private StoredFile upload(MultipartFile file, AtomicLong requestBytes) {
+        UploadStager.StagedUpload staged = uploadStager.stage(file, requestBytes);
+        try {
+            return storageService.store(staged.getPath(), staged.getOriginalFilename(), staged.getContentType());
+        } finally {
+            staged.discard();
+        }
+    }
+
+    public void deleteAll(List<StoredFile> files) {
+        storageOutbox.enqueueDeletes(files.stream().map(StoredFile::getKey).toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.model.ProductImage;
+import com.example.ecommerce.model.ProductImageVariant;
+import com.example.ecommerce.repository.ProductImageRepository;
+import com.example.ecommerce.repository.ProductImageVariantRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class ImageVariantGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantGenerator.class);
+
+    private final StorageService storageService;
+    private final StorageOutbox storageOutbox;
+    private final ProductImageRepository productImageRepository;
+    private final ProductImageVariantRepository productImageVariantRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int[] widths;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+    private final Timer processingTime;
+    private final Counter rejected;
+    private final Counter oversized;
+    private final Counter failed;
+
+    public ImageVariantGenerator(StorageService storageService,
+                                 StorageOutbox storageOutbox,
+                                 ProductImageRepository productImageRepository,
+                                 ProductImageVariantRepository productImageVariantRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.images.variants.widths:160,480,960}") int[] widths,
+                                 @Value("${app.images.variants.workers:2}") int workers,
+                                 @Value("${app.images.variants.queue-capacity:500}") int queueCapacity,
+                                 @Value("${app.images.variants.max-pixels:50000000}") long maxPixels,
+                                 MeterRegistry meterRegistry) {
+        this.storageService = storageService;
+        this.storageOutbox = storageOutbox;
+        this.productImageRepository = productImageRepository;
+        this.productImageVariantRepository = productImageVariantRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.widths = Arrays.stream(widths).filter(width -> width > 0).sorted().distinct().toArray();
+        this.maxPixels = maxPixels;
+        this.executor = new ThreadPoolExecutor(
+            workers,
+            workers,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("image-variants-"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.processingTime = Timer.builder("images.variants.processing").register(meterRegistry);
+        this.rejected = Counter.builder("images.variants.jobs").tag("result", "rejected").register(meterRegistry);
+        this.oversized = Counter.builder("images.variants.jobs").tag("result", "oversized").register(meterRegistry);
+        this.failed = Counter.builder("images.variants.jobs").tag("result", "failed").register(meterRegistry);
+        Gauge.builder("images.variants.queue.depth", executor, pool -> pool.getQueue().size())
+            .register(meterRegistry);
+        Gauge.builder("images.variants.active", executor, ThreadPoolExecutor::getActiveCount)
+            .register(meterRegistry);
+    }
+
+    public void generateAfterCommit(List<ProductImage> images) {
+        if (widths.length == 0 || images.isEmpty()) {
+            return;
+        }
+        List<VariantJob> jobs = images.stream()
+            .map(image -> new VariantJob(image.getId(), image.getStorageKey(), image.getContentType()))
+            .toList();
+        TransactionCallbacks.afterCommit(() -> jobs.forEach(this::submit));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void submit(VariantJob job) {
+        try {
+            executor.execute(() -> processingTime.record(() -> generate(job)));
+        } catch (RuntimeException ex) {
+            rejected.increment();
+            log.warn("Variant queue is full, skipping image {}", job.imageId);
+        }
+    }
+
+    private void generate(VariantJob job) {
+        try {
+            BufferedImage original;
+            try (InputStream in = storageService.loadAsResource(job.storageKey).getInputStream()) {
+                original = decode(in, job.imageId);
+            }
+            if (original == null) {
+                return;
+            }
+            boolean png = "image/png".equals(job.contentType) || "image/gif".equals(job.contentType);
+            String format = png ? "png" : "jpeg";
+            String contentType = png ? "image/png" : "image/jpeg";
+            for (int width : widths) {
+                if (width >= original.getWidth()) {
+                    break;
+                }
+                int height = Math.max(1, Math.round((float) original.getHeight() * width / original.getWidth()));
+                BufferedImage scaled = scale(original, width, height, png);
+                Path temp = Files.createTempFile("variant-", "." + format);
+                try {
+                    if (!ImageIO.write(scaled, format, temp.toFile())) {
+                        return;
+                    }
+                    StoredFile stored = storageService.store(temp, "w" + width + "." + format, contentType);
+                    if (!saveVariant(job.imageId, width, height, stored)) {
+                        storageOutbox.enqueueDeletes(List.of(stored.getKey()));
+                        return;
+                    }
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            failed.increment();
+            log.warn("Failed to generate variants for image {}", job.imageId, ex);
+        }
+    }
+
+    private BufferedImage decode(InputStream in, Long imageId) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    oversized.increment();
+                    log.warn("Skipping variants for image {}: {}x{} exceeds the pixel budget", imageId, width, height);
+                    return null;
+                }
+                // keep twice the largest variant width so the bilinear downscale still has detail to work with
+                int subsampling = Math.max(1, width / (widths[widths.length - 1] * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private boolean saveVariant(Long imageId, int width, int height, StoredFile stored) {
+        Boolean saved = transactionTemplate.execute(status -> {
+            ProductImage image = productImageRepository.findById(imageId).orElse(null);
+            if (image == null) {
+                return false;
+            }
+            ProductImageVariant variant = new ProductImageVariant();
+            variant.setImage(image);
+            variant.setWidth(width);
+            variant.setHeight(height);
+            variant.setStorageKey(stored.getKey());
+            variant.setContentType(stored.getContentType());
+            variant.setSize(stored.getSize());
+            variant.setCreatedAt(Instant.now());
+            productImageVariantRepository.save(variant);
+            return true;
+        });
+        return Boolean.TRUE.equals(saved);
+    }
+
+    private static BufferedImage scale(BufferedImage original, int width, int height, boolean alpha) {
+        BufferedImage scaled = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (!alpha) {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+            }
+            graphics.drawImage(original, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static final class VariantJob {
+        private final Long imageId;
+        private final String storageKey;
+        private final String contentType;
+
+        private VariantJob(Long imageId, String storageKey, String contentType) {
+            this.imageId = imageId;
+            this.storageKey = storageKey;
+            this.contentType = contentType;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.ecommerce.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class InventoryReservations {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryReservations.class);
+
+    private static final String AVAILABLE_SQL =
+        "SELECT p.stock_quantity - COALESCE((SELECT SUM(r.quantity) FROM stock_reservations r "
+            + "WHERE r.product_id = p.id), 0) FROM products p WHERE p.id = ?";
+    private static final String LOCK_STOCK_SQL = "SELECT stock_quantity FROM products WHERE id = ? FOR UPDATE";
+    private static final String JOURNAL_SQL =
+        "INSERT INTO stock_reservations (product_id, quantity, created_at) VALUES (?, ?, now())";
+    private static final String DRAIN_SQL =
+        "DELETE FROM stock_reservations WHERE id IN (SELECT id FROM stock_reservations "
+            + "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING product_id, quantity";
+    private static final String APPLY_SQL = "UPDATE products SET stock_quantity = stock_quantity - ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductViewCache productViewCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Long> productIds;
+    private final int stripes;
+    private final int flushBatchSize;
+    private final Map<Long, StripedStock> stock = new ConcurrentHashMap<>();
+    private final Counter granted;
+    private final Counter rejected;
+    private final Timer flushTime;
+
+    public InventoryReservations(JdbcTemplate jdbcTemplate,
+                                 ProductViewCache productViewCache,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.inventory.reservations.product-ids:}") long[] productIds,
+                                 @Value("${app.inventory.reservations.stripes:16}") int stripes,
+                                 @Value("${app.inventory.reservations.flush-batch-size:1000}") int flushBatchSize,
+                                 MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productViewCache = productViewCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productIds = Arrays.stream(productIds).boxed().collect(Collectors.toUnmodifiableSet());
+        this.stripes = Math.max(1, stripes);
+        this.flushBatchSize = flushBatchSize;
+        this.granted = Counter.builder("inventory.reservations").tag("result", "granted").register(meterRegistry);
+        this.rejected = Counter.builder("inventory.reservations").tag("result", "rejected").register(meterRegistry);
+        this.flushTime = Timer.builder("inventory.reservations.flush").register(meterRegistry);
+    }
+
+    public boolean manages(Long productId) {
+        return productIds.contains(productId);
+    }
+
+    public Optional<Long> reserve(Map<Long, Integer> quantitiesByProductId) {
+        if (quantitiesByProductId.isEmpty()) {
+            return Optional.empty();
+        }
+        Map<Long, Integer> reserved = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> line : quantitiesByProductId.entrySet()) {
+            if (!counter(line.getKey()).tryTake(line.getValue())) {
+                rejected.increment();
+                release(reserved);
+                return Optional.of(line.getKey());
+            }
+            reserved.put(line.getKey(), line.getValue());
+        }
+        TransactionCallbacks.afterRollback(() -> release(reserved));
+        List<Object[]> batchArgs = new ArrayList<>(reserved.size());
+        reserved.forEach((productId, quantity) -> batchArgs.add(new Object[] {productId, quantity}));
+        jdbcTemplate.batchUpdate(JOURNAL_SQL, batchArgs);
+        granted.increment(reserved.size());
+        return Optional.empty();
+    }
+
+    public void adjustAfterCommit(Long productId, int stockQuantity) {
+        if (!manages(productId)) {
+            return;
+        }
+        List<Integer> locked = jdbcTemplate.queryForList(LOCK_STOCK_SQL, Integer.class, productId);
+        int delta = locked.isEmpty() ? 0 : stockQuantity - locked.get(0);
+        if (delta == 0) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            StripedStock counter = stock.get(productId);
+            if (counter != null) {
+                counter.add(delta);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        int drained = flush();
+        if (drained > 0) {
+            log.info("Applied {} journaled stock reservations left over from the previous run", drained);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.reservations.flush-interval:PT1S}")
+    public void flushPending() {
+        if (!productIds.isEmpty()) {
+            flush();
+        }
+    }
+
+    private int flush() {
+        int total = 0;
+        int drained;
+        do {
+            long started = System.nanoTime();
+            drained = flushBatch();
+            flushTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            total += drained;
+        } while (drained == flushBatchSize);
+        return total;
+    }
+
+    private int flushBatch() {
+        Integer drained = transactionTemplate.execute(status -> {
+            SortedMap<Long, Long> totals = new TreeMap<>();
+            int[] rows = new int[1];
+            jdbcTemplate.query(DRAIN_SQL, rs -> {
+                totals.merge(rs.getLong(1), rs.getLong(2), Long::sum);
+                rows[0]++;
+            }, flushBatchSize);
+            if (totals.isEmpty()) {
+                return 0;
+            }
+            List<Object[]> batchArgs = new ArrayList<>(totals.size());
+            totals.forEach((productId, quantity) -> batchArgs.add(new Object[] {quantity, productId}));
+            jdbcTemplate.batchUpdate(APPLY_SQL, batchArgs);
+            totals.keySet().forEach(productViewCache::evict);
+            return rows[0];
+        });
+        return drained == null ? 0 : drained;
+    }
+
+    private StripedStock counter(Long productId) {
+        return stock.computeIfAbsent(productId, id -> {
+            List<Long> available = jdbcTemplate.queryForList(AVAILABLE_SQL, Long.class, id);
+            return new StripedStock(stripes, available.isEmpty() || available.get(0) == null ? 0 : available.get(0));
+        });
+    }
+
+    private void release(Map<Long, Integer> reserved) {
+        reserved.forEach((productId, quantity) -> counter(productId).add(quantity));
+    }
+
+    static final class StripedStock {
+
+        private static final int PADDING = 8;
+
+        private final int stripes;
+        private final AtomicLongArray slots;
+
+        StripedStock(int stripes, long available) {
+            this.stripes = stripes;
+            this.slots = new AtomicLongArray(stripes * PADDING);
+            spread(available);
+        }
+
+        boolean tryTake(int quantity) {
+            int start = (int) (Thread.currentThread().getId() % stripes);
+            for (int i = 0; i < stripes; i++) {
+                int slot = ((start + i) % stripes) * PADDING;
+                long current = slots.get(slot);
+                while (current >= quantity) {
+                    if (slots.compareAndSet(slot, current, current - quantity)) {
+                        return true;
+                    }
+                    current = slots.get(slot);
+                }
+            }
+            return takePooled(quantity);
+        }
+
+        void add(long quantity) {
+            int slot = (int) (Thread.currentThread().getId() % stripes) * PADDING;
+            slots.addAndGet(slot, quantity);
+        }
+
+        private synchronized boolean takePooled(int quantity) {
+            long total = 0;
+            for (int i = 0; i < stripes; i++) {
+                total += slots.getAndSet(i * PADDING, 0);
+            }
+            boolean taken = total >= quantity;
+            spread(taken ? total - quantity : total);
+            return taken;
+        }
+
+        private void spread(long available) {
+            if (available <= 0) {
+                slots.addAndGet(0, available);
+                return;
+            }
+            long share = available / stripes;
+            long extra = available % stripes;
+            for (int i = 0; i < stripes; i++) {
+                slots.addAndGet(i * PADDING, share + (i < extra ? 1 : 0));
+            }
+        }
+    }
+}
@@ -1,62 +1,131 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.model.AppUser;
+import com.example.ecommerce.model.Role;
+import com.example.ecommerce.security.AuthenticatedUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
-import java.security.Key;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 @Service
 public class JwtService {
 
-    private final String secret;
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLE_CLAIM = "role";
+    private static final String SELLER_VERIFIED_CLAIM = "sv";
+    private static final String VERSION_CLAIM = "ver";
+
+    private final Key signingKey;
+    private final JwtParser parser;
     private final long expirationMs;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final Cache<String, TokenClaims> verifiedTokens;
 
     public JwtService(@Value("${app.jwt.secret}") String secret,
-                      @Value("${app.jwt.expiration-ms}") long expirationMs) {
-        this.secret = secret;
+                      @Value("${app.jwt.expiration-ms}") long expirationMs,
+                      @Value("${app.jwt.cache.max-size:10000}") long cacheMaxSize,
+                      TokenVersionRegistry tokenVersionRegistry,
+                      MeterRegistry meterRegistry) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+            .setSigningKey(signingKey)
+            .build();
         this.expirationMs = expirationMs;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfter(new Expiry<String, TokenClaims>() {
+                @Override
+                public long expireAfterCreate(String key, TokenClaims value, long currentTime) {
+                    return Math.max(0, Duration.between(Instant.now(), value.getExpiresAt()).toNanos());
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, TokenClaims value, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, value, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String key, TokenClaims value, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "verifiedTokens");
     }
 
-    public String generateToken(UserDetails userDetails) {
+    public String generateToken(AppUser user) {
         Date now = new Date();
         Date expiry = new Date(now.getTime() + expirationMs);
         return Jwts.builder()
-            .setSubject(userDetails.getUsername())
+            .setSubject(user.getEmail())
+            .claim(USER_ID_CLAIM, user.getId())
+            .claim(ROLE_CLAIM, user.getRole().name())
+            .claim(SELLER_VERIFIED_CLAIM, user.isSellerVerified())
+            .claim(VERSION_CLAIM, user.getTokenVersion())
             .setIssuedAt(now)
             .setExpiration(expiry)
-            .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+            .signWith(signingKey, SignatureAlgorithm.HS256)
             .compact();
     }
 
-    public String extractUsername(String token) {
-        return extractAllClaims(token).getSubject();
-    }
-
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+    public AuthenticatedUser authenticate(String token) {
+        TokenClaims claims = validate(token);
+        if (claims.getVersion() < tokenVersionRegistry.currentVersion(claims.getPrincipal().getId())) {
+            throw new JwtException("Token has been revoked");
+        }
+        return claims.getPrincipal();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
+    public TokenClaims validate(String token) {
+        String digest = digest(token);
+        TokenClaims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+        TokenClaims claims = parse(token);
+        verifiedTokens.put(digest, claims);
+        return claims;
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-            .setSigningKey(getSigningKey())
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
+    private TokenClaims parse(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        Boolean sellerVerified = claims.get(SELLER_VERIFIED_CLAIM, Boolean.class);
+        Integer version = claims.get(VERSION_CLAIM, Integer.class);
+        if (userId == null || role == null || sellerVerified == null || version == null || claims.getExpiration() == null) {
+            throw new JwtException("Token is missing user claims");
+        }
+        AuthenticatedUser principal = new AuthenticatedUser(userId, claims.getSubject(), Role.valueOf(role), sellerVerified);
+        return new TokenClaims(principal, version, claims.getExpiration().toInstant());
     }
 
-    private Key getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
     }
 }
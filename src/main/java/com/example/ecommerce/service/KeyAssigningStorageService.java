@@ -0,0 +1,9 @@
+package com.example.ecommerce.service;
+
+import java.nio.file.Path;
+
+public interface KeyAssigningStorageService extends StorageService {
+    String generateKey(String originalFilename);
+
+    StoredFile storeAs(String key, Path source, String originalFilename, String contentType);
+}
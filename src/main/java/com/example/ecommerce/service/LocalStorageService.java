@@ -4,24 +4,22 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
-import org.springframework.beans.factory.annotation.Value;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpStatus;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
-import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
-@Service
-@ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
 public class LocalStorageService implements StorageService {
 
     private final Path rootLocation;
 
-    public LocalStorageService(@Value("${app.storage.product-images-path}") String rootPath) {
+    public LocalStorageService(String rootPath) {
         this.rootLocation = Path.of(rootPath).toAbsolutePath().normalize();
         try {
             Files.createDirectories(this.rootLocation);
@@ -31,28 +29,19 @@ public class LocalStorageService implements StorageService {
     }
 
     @Override
-    public StoredFile store(MultipartFile file) {
-        if (file == null || file.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Image file is required");
-        }
-        String contentType = file.getContentType();
+    public StoredFile store(Path source, String originalFilename, String contentType) {
         if (contentType == null || !contentType.startsWith("image/")) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only image uploads are supported");
         }
-        String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-        String extension = "";
-        int dot = originalFilename.lastIndexOf('.');
-        if (dot >= 0) {
-            extension = originalFilename.substring(dot);
-        }
-        String key = UUID.randomUUID() + extension;
+        String cleanFilename = StringUtils.cleanPath(originalFilename);
+        String key = newKey(cleanFilename);
         Path destination = rootLocation.resolve(key);
         try {
-            Files.copy(file.getInputStream(), destination, StandardCopyOption.REPLACE_EXISTING);
+            Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING);
+            return new StoredFile(key, cleanFilename, contentType, Files.size(destination));
         } catch (IOException e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to store file", e);
         }
-        return new StoredFile(key, originalFilename, contentType, file.getSize());
     }
 
     @Override
@@ -69,6 +58,15 @@ public class LocalStorageService implements StorageService {
         throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found");
     }
 
+    @Override
+    public Optional<Path> resolveLocalFile(String key) {
+        Path file = rootLocation.resolve(key).normalize();
+        if (!file.startsWith(rootLocation) || !Files.isReadable(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(file);
+    }
+
     @Override
     public void delete(String key) {
         try {
@@ -78,4 +76,26 @@ public class LocalStorageService implements StorageService {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to delete file", e);
         }
     }
+
+    @Override
+    public void forEachKey(Instant storedBefore, Consumer<String> action) {
+        try (Stream<Path> files = Files.list(rootLocation)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (Files.isRegularFile(file) && Files.getLastModifiedTime(file).toInstant().isBefore(storedBefore)) {
+                    action.accept(file.getFileName().toString());
+                }
+            }
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to list files", e);
+        }
+    }
+
+    private static String newKey(String originalFilename) {
+        String extension = "";
+        int dot = originalFilename.lastIndexOf('.');
+        if (dot >= 0) {
+            extension = originalFilename.substring(dot);
+        }
+        return UUID.randomUUID() + extension;
+    }
 }
@@ -0,0 +1,300 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.web.dto.CreateOrderRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+@Component
+public class OrderIntake {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIntake.class);
+
+    public static final String PENDING = "PENDING";
+    public static final String PROCESSING = "PROCESSING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String ENQUEUE_SQL =
+        "INSERT INTO order_intake (handle, user_id, payload, status, attempts, created_at) VALUES (?, ?, ?, 'PENDING', 0, now())";
+    private static final String CLAIM_SQL =
+        "UPDATE order_intake SET status = 'PROCESSING', attempts = attempts + 1, claimed_until = ? "
+            + "WHERE id IN (SELECT id FROM order_intake WHERE status = 'PENDING' "
+            + "OR (status = 'PROCESSING' AND claimed_until < now()) ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) "
+            + "RETURNING id, payload, attempts, created_at";
+    private static final String COMPLETE_SQL =
+        "UPDATE order_intake SET status = 'COMPLETED', order_id = ?, processed_at = now() "
+            + "WHERE id = ? AND status = 'PROCESSING' AND attempts = ?";
+    private static final String FAIL_SQL =
+        "UPDATE order_intake SET status = 'FAILED', error = ?, processed_at = now() "
+            + "WHERE id = ? AND status = 'PROCESSING' AND attempts = ?";
+    private static final String STATUS_SQL =
+        "SELECT handle, status, order_id, error, created_at FROM order_intake WHERE handle = ? AND user_id = ?";
+
+    private final OrderService orderService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final ScheduledExecutorService workers;
+    private final Timer lag;
+    private final DistributionSummary batchSizes;
+    private final Counter completed;
+    private final Counter failed;
+
+    public OrderIntake(OrderService orderService,
+                       JdbcTemplate jdbcTemplate,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.orders.intake.mode:sync}") String mode,
+                       @Value("${app.orders.intake.workers:2}") int workers,
+                       @Value("${app.orders.intake.batch-size:100}") int batchSize,
+                       @Value("${app.orders.intake.max-attempts:5}") int maxAttempts,
+                       @Value("${app.orders.intake.poll-interval:200ms}") Duration pollInterval,
+                       @Value("${app.orders.intake.lease:2m}") Duration lease,
+                       MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = "async".equalsIgnoreCase(mode);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.lag = Timer.builder("orders.intake.lag").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("orders.intake.batch.size").register(meterRegistry);
+        this.completed = Counter.builder("orders.intake.orders").tag("result", "completed").register(meterRegistry);
+        this.failed = Counter.builder("orders.intake.orders").tag("result", "failed").register(meterRegistry);
+        this.workers = enabled ? startWorkers(workers, pollInterval) : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Ticket submit(CreateOrderRequest request, Long userId) {
+        orderService.checkOrderable(request);
+        UUID handle = UUID.randomUUID();
+        try {
+            jdbcTemplate.update(ENQUEUE_SQL, handle, userId, objectMapper.writeValueAsString(request));
+        } catch (JsonProcessingException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid order request", ex);
+        }
+        return new Ticket(handle, PENDING, null, null, Instant.now());
+    }
+
+    public Ticket getTicket(UUID handle, Long userId) {
+        List<Ticket> tickets = jdbcTemplate.query(STATUS_SQL,
+            (rs, rowNum) -> new Ticket(
+                rs.getObject(1, UUID.class),
+                rs.getString(2),
+                rs.getObject(3, Long.class),
+                rs.getString(4),
+                rs.getTimestamp(5).toInstant()),
+            handle, userId);
+        if (tickets.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Order request not found");
+        }
+        return tickets.get(0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    private ScheduledExecutorService startWorkers(int count, Duration pollInterval) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("order-intake-");
+        threadFactory.setDaemon(true);
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(count, threadFactory);
+        for (int i = 0; i < count; i++) {
+            executor.scheduleWithFixedDelay(this::drain, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return executor;
+    }
+
+    private void drain() {
+        try {
+            int claimed;
+            do {
+                claimed = processBatch();
+            } while (claimed == batchSize);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to process queued orders", ex);
+        }
+    }
+
+    private int processBatch() {
+        List<QueuedOrder> claimed = jdbcTemplate.query(CLAIM_SQL,
+            (rs, rowNum) -> new QueuedOrder(
+                rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getTimestamp(4).toInstant()),
+            Timestamp.from(Instant.now().plus(lease)),
+            batchSize);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        batchSizes.record(claimed.size());
+
+        List<QueuedOrder> runnable = new ArrayList<>(claimed.size());
+        List<CreateOrderRequest> requests = new ArrayList<>(claimed.size());
+        List<Object[]> failures = new ArrayList<>();
+        for (QueuedOrder queued : claimed) {
+            if (queued.attempts > maxAttempts) {
+                failures.add(new Object[] {"Gave up after " + maxAttempts + " attempts", queued.id, queued.attempts});
+                continue;
+            }
+            try {
+                requests.add(objectMapper.readValue(queued.payload, CreateOrderRequest.class));
+                runnable.add(queued);
+            } catch (JsonProcessingException ex) {
+                failures.add(new Object[] {"Unreadable order request", queued.id, queued.attempts});
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            jdbcTemplate.batchUpdate(FAIL_SQL, failures);
+            failed.increment(failures.size());
+        }
+        placeIsolated(runnable, requests);
+        return claimed.size();
+    }
+
+    private void placeIsolated(List<QueuedOrder> queued, List<CreateOrderRequest> requests) {
+        if (queued.isEmpty()) {
+            return;
+        }
+        try {
+            place(queued, requests);
+        } catch (RuntimeException ex) {
+            if (queued.size() == 1) {
+                log.warn("Failed to place queued order {}", queued.get(0).id, ex);
+                return;
+            }
+            int half = queued.size() / 2;
+            placeIsolated(queued.subList(0, half), requests.subList(0, half));
+            placeIsolated(queued.subList(half, queued.size()), requests.subList(half, requests.size()));
+        }
+    }
+
+    private void place(List<QueuedOrder> queued, List<CreateOrderRequest> requests) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Object[]> completions = new ArrayList<>(queued.size());
+            List<Object[]> failures = new ArrayList<>();
+            List<OrderService.BatchOutcome> outcomes = orderService.placeOrders(requests, status);
+            for (int i = 0; i < outcomes.size(); i++) {
+                OrderService.BatchOutcome outcome = outcomes.get(i);
+                if (outcome.getOrder() != null) {
+                    completions.add(new Object[] {outcome.getOrder().getId(), queued.get(i).id, queued.get(i).attempts});
+                } else {
+                    failures.add(new Object[] {truncate(outcome.getError()), queued.get(i).id, queued.get(i).attempts});
+                }
+            }
+            if (!allApplied(jdbcTemplate.batchUpdate(COMPLETE_SQL, completions))
+                || !allApplied(jdbcTemplate.batchUpdate(FAIL_SQL, failures))) {
+                throw new IllegalStateException("Lost the claim on a queued order while placing it");
+            }
+            TransactionCallbacks.afterCommit(() -> {
+                completed.increment(completions.size());
+                failed.increment(failures.size());
+                Instant now = Instant.now();
+                queued.forEach(order -> lag.record(Duration.between(order.createdAt, now)));
+            });
+        });
+    }
+
+    private static boolean allApplied(int[] counts) {
+        for (int count : counts) {
+            if (count == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    public static class Ticket {
+        private final UUID handle;
+        private final String status;
+        private final Long orderId;
+        private final String error;
+        private final Instant createdAt;
+
+        public Ticket(UUID handle, String status, Long orderId, String error, Instant createdAt) {
+            this.handle = handle;
+            this.status = status;
+            this.orderId = orderId;
+            this.error = error;
+            this.createdAt = createdAt;
+        }
+
+        public UUID getHandle() {
+            return handle;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public Long getOrderId() {
+            return orderId;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+    }
+
+    private static final class QueuedOrder {
+        private final long id;
+        private final String payload;
+        private final int attempts;
+        private final Instant createdAt;
+
+        private QueuedOrder(long id, String payload, int attempts, Instant createdAt) {
+            this.id = id;
+            this.payload = payload;
+            this.attempts = attempts;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.model.Order;
+import java.util.List;
+
+public class OrderPage {
+    private final List<Order> orders;
+    private final String nextCursor;
+
+    public OrderPage(List<Order> orders, String nextCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
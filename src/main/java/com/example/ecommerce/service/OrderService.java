@@ -2,6 +2,9 @@ package com.example.ecommerce.service;
 
 import com.example.ecommerce.model.Address;
 import com.example.ecommerce.model.AppUser;
+import com.example.ecommerce.model.Cart;
+import com.example.ecommerce.model.CartItem;
+import com.example.ecommerce.model.CartStatus;
 import com.example.ecommerce.model.Order;
 import com.example.ecommerce.model.OrderItem;
 import com.example.ecommerce.model.OrderShippingAddress;
@@ -9,53 +12,264 @@ import com.example.ecommerce.model.Product;
 import com.example.ecommerce.model.SellerOrder;
 import com.example.ecommerce.repository.AddressRepository;
 import com.example.ecommerce.repository.AppUserRepository;
+import com.example.ecommerce.repository.CartRepository;
+import com.example.ecommerce.repository.OrderFilter;
+import com.example.ecommerce.repository.OrderItemRepository;
 import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.SellerOrderRepository;
 import com.example.ecommerce.web.dto.CreateOrderRequest;
 import com.example.ecommerce.web.dto.OrderItemRequest;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.SavepointManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
 public class OrderService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final SellerOrderRepository sellerOrderRepository;
     private final ProductService productService;
     private final AppUserRepository appUserRepository;
     private final AddressRepository addressRepository;
+    private final CartRepository cartRepository;
+    private final IdempotencyStore idempotencyStore;
+    private final TransactionTemplate transactionTemplate;
 
     public OrderService(
         OrderRepository orderRepository,
+        OrderItemRepository orderItemRepository,
+        SellerOrderRepository sellerOrderRepository,
         ProductService productService,
         AppUserRepository appUserRepository,
-        AddressRepository addressRepository
+        AddressRepository addressRepository,
+        CartRepository cartRepository,
+        IdempotencyStore idempotencyStore,
+        PlatformTransactionManager transactionManager
     ) {
         this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.sellerOrderRepository = sellerOrderRepository;
         this.productService = productService;
         this.appUserRepository = appUserRepository;
         this.addressRepository = addressRepository;
+        this.cartRepository = cartRepository;
+        this.idempotencyStore = idempotencyStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    public List<Order> listOrders() {
-        return orderRepository.findAll();
+    public OrderPage listOrders(OrderFilter filter, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        OrderCursor after = cursor == null || cursor.isBlank() ? null : OrderCursor.decode(cursor);
+        List<Order> orders = orderRepository.findPage(
+            filter,
+            after == null ? null : after.getCreatedAt(),
+            after == null ? null : after.getId(),
+            limit + 1
+        );
+        if (orders.size() <= limit) {
+            return new OrderPage(orders, null);
+        }
+        List<Order> page = new ArrayList<>(orders.subList(0, limit));
+        return new OrderPage(page, OrderCursor.after(page.get(limit - 1)).encode());
     }
 
     public Order getOrder(Long id) {
-        return orderRepository.findById(id)
+        return orderRepository.findWithShippingAddressById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
     }
 
+    public Map<Long, List<OrderItem>> listItemsByOrderIds(Collection<Long> orderIds) {
+        return orderItemRepository.findWithProductByOrderIdIn(orderIds).stream()
+            .collect(Collectors.groupingBy(item -> item.getOrder().getId()));
+    }
+
+    public Map<Long, List<SellerOrder>> listSellerOrdersByOrderIds(Collection<Long> orderIds) {
+        return sellerOrderRepository.findByOrderIdInOrderByIdAsc(orderIds).stream()
+            .collect(Collectors.groupingBy(sellerOrder -> sellerOrder.getOrder().getId()));
+    }
+
     @Transactional
     public Order createOrder(CreateOrderRequest request) {
+        return placeOrder(request);
+    }
+
+    public Order createOrder(CreateOrderRequest request, Long userId, String idempotencyKey) {
+        String requestHash = requestHash(request);
+        Optional<Long> replayed = idempotencyStore.findCompleted(userId, idempotencyKey, requestHash);
+        if (replayed.isPresent()) {
+            return getOrder(replayed.get());
+        }
+        if (!idempotencyStore.tryLock(userId, idempotencyKey)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A request with this idempotency key is in progress");
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                if (!idempotencyStore.claim(userId, idempotencyKey, requestHash)) {
+                    Long orderId = idempotencyStore.findCompleted(userId, idempotencyKey, requestHash)
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                            "A request with this idempotency key is in progress"));
+                    return getOrder(orderId);
+                }
+                Order order = placeOrder(request);
+                idempotencyStore.complete(userId, idempotencyKey, requestHash, order.getId());
+                return order;
+            });
+        } finally {
+            idempotencyStore.unlock(userId, idempotencyKey);
+        }
+    }
+
+    private Order placeOrder(CreateOrderRequest request) {
+        AppUser buyer = appUserRepository.findById(request.getBuyerId())
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Buyer not found"));
+        Address address = addressRepository.findById(request.getShippingAddressId())
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Shipping address not found"));
+        Map<Long, Integer> quantitiesByProductId = quantitiesByProductId(request);
+        Order order = buildOrder(buyer, address, quantitiesByProductId,
+            productService.getProductsWithSellers(quantitiesByProductId.keySet()));
+
+        productService.reduceStock(quantitiesByProductId);
+        return orderRepository.save(order);
+    }
+
+    @Transactional
+    public Order checkout(Long userId, Long shippingAddressId) {
+        Cart cart = cartRepository.findWithItemsByUserIdAndStatus(userId, CartStatus.ACTIVE)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cart not found"));
+        if (cart.getItems().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cart is empty");
+        }
+        if (cartRepository.updateStatus(cart.getId(), CartStatus.ACTIVE, CartStatus.CHECKED_OUT) == 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Cart is already checked out");
+        }
+        AppUser buyer = appUserRepository.findById(userId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Buyer not found"));
+        Address address = addressRepository.findById(shippingAddressId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Shipping address not found"));
+
+        Map<Long, Integer> quantitiesByProductId = new LinkedHashMap<>();
+        Map<Long, Product> productsById = new HashMap<>();
+        for (CartItem item : cart.getItems()) {
+            quantitiesByProductId.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            productsById.put(item.getProduct().getId(), item.getProduct());
+        }
+        Order order = buildOrder(buyer, address, quantitiesByProductId, productsById);
+
+        productService.reduceStock(quantitiesByProductId);
+        return orderRepository.save(order);
+    }
+
+    @Transactional(readOnly = true)
+    public void checkOrderable(CreateOrderRequest request) {
         AppUser buyer = appUserRepository.findById(request.getBuyerId())
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Buyer not found"));
         Address address = addressRepository.findById(request.getShippingAddressId())
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Shipping address not found"));
+        Map<Long, Integer> quantitiesByProductId = quantitiesByProductId(request);
+        buildOrder(buyer, address, quantitiesByProductId, productService.getProductsWithSellers(quantitiesByProductId.keySet()));
+    }
+
+    public List<BatchOutcome> placeOrders(List<CreateOrderRequest> requests, SavepointManager savepoints) {
+        Map<Long, AppUser> buyersById = new HashMap<>();
+        Map<Long, Address> addressesById = new HashMap<>();
+        Set<Long> productIds = new HashSet<>();
+        for (CreateOrderRequest request : requests) {
+            buyersById.put(request.getBuyerId(), null);
+            addressesById.put(request.getShippingAddressId(), null);
+            request.getItems().forEach(item -> productIds.add(item.getProductId()));
+        }
+        appUserRepository.findAllById(buyersById.keySet()).forEach(buyer -> buyersById.put(buyer.getId(), buyer));
+        addressRepository.findAllById(addressesById.keySet()).forEach(address -> addressesById.put(address.getId(), address));
+        Map<Long, Product> productsById = productService.findProductsWithSellers(productIds);
+
+        List<BatchOutcome> outcomes = new ArrayList<>(requests.size());
+        List<Map<Long, Integer>> quantities = new ArrayList<>(requests.size());
+        Map<Long, Integer> totals = new HashMap<>();
+        for (CreateOrderRequest request : requests) {
+            Map<Long, Integer> quantitiesByProductId = quantitiesByProductId(request);
+            try {
+                AppUser buyer = buyersById.get(request.getBuyerId());
+                Address address = addressesById.get(request.getShippingAddressId());
+                if (buyer == null) {
+                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Buyer not found");
+                }
+                if (address == null) {
+                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Shipping address not found");
+                }
+                for (Long productId : quantitiesByProductId.keySet()) {
+                    if (!productsById.containsKey(productId)) {
+                        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found: " + productId);
+                    }
+                }
+                outcomes.add(BatchOutcome.placed(buildOrder(buyer, address, quantitiesByProductId, productsById)));
+                quantitiesByProductId.forEach((productId, quantity) -> totals.merge(productId, quantity, Integer::sum));
+            } catch (ResponseStatusException ex) {
+                outcomes.add(BatchOutcome.failed(ex.getReason()));
+            }
+            quantities.add(quantitiesByProductId);
+        }
+
+        Object all = savepoints.createSavepoint();
+        if (productService.tryReduceStock(totals).isEmpty()) {
+            savepoints.releaseSavepoint(all);
+        } else {
+            savepoints.rollbackToSavepoint(all);
+            for (int i = 0; i < outcomes.size(); i++) {
+                if (outcomes.get(i).getOrder() == null) {
+                    continue;
+                }
+                Object single = savepoints.createSavepoint();
+                Optional<Long> rejected = productService.tryReduceStock(quantities.get(i));
+                if (rejected.isEmpty()) {
+                    savepoints.releaseSavepoint(single);
+                } else {
+                    savepoints.rollbackToSavepoint(single);
+                    outcomes.set(i, BatchOutcome.failed("Insufficient stock for product " + rejected.get()));
+                }
+            }
+        }
+
+        orderRepository.saveAllAndFlush(outcomes.stream()
+            .map(BatchOutcome::getOrder)
+            .filter(Objects::nonNull)
+            .toList());
+        return outcomes;
+    }
+
+    private static Map<Long, Integer> quantitiesByProductId(CreateOrderRequest request) {
+        Map<Long, Integer> quantitiesByProductId = new LinkedHashMap<>();
+        for (OrderItemRequest itemRequest : request.getItems()) {
+            quantitiesByProductId.merge(itemRequest.getProductId(), itemRequest.getQuantity(), Integer::sum);
+        }
+        return quantitiesByProductId;
+    }
+
+    private Order buildOrder(AppUser buyer, Address address, Map<Long, Integer> quantitiesByProductId, Map<Long, Product> productsById) {
         if (!address.getUser().getId().equals(buyer.getId())) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Shipping address does not belong to buyer");
         }
@@ -66,17 +280,17 @@ public class OrderService {
 
         BigDecimal total = BigDecimal.ZERO;
         Map<Long, SellerOrder> sellerOrders = new HashMap<>();
-        for (OrderItemRequest itemRequest : request.getItems()) {
-            Product product = productService.getProduct(itemRequest.getProductId());
+        for (Map.Entry<Long, Integer> line : quantitiesByProductId.entrySet()) {
+            Product product = productsById.get(line.getKey());
             if (product.getSeller() == null) {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Product has no seller");
             }
-            productService.reduceStock(product, itemRequest.getQuantity());
 
             OrderItem item = new OrderItem();
             item.setProduct(product);
-            item.setQuantity(itemRequest.getQuantity());
+            item.setQuantity(line.getValue());
             item.setUnitPrice(productService.priceFor(product));
+            BigDecimal lineTotal = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
 
             SellerOrder sellerOrder = sellerOrders.computeIfAbsent(product.getSeller().getId(), sellerId -> {
                 SellerOrder created = new SellerOrder();
@@ -85,12 +299,10 @@ public class OrderService {
                 return created;
             });
             item.setSellerOrder(sellerOrder);
-            sellerOrder.setTotalAmount(sellerOrder.getTotalAmount().add(
-                item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()))
-            ));
+            sellerOrder.setTotalAmount(sellerOrder.getTotalAmount().add(lineTotal));
 
             order.addItem(item);
-            total = total.add(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            total = total.add(lineTotal);
         }
 
         for (SellerOrder sellerOrder : sellerOrders.values()) {
@@ -98,7 +310,22 @@ public class OrderService {
         }
 
         order.setTotalAmount(total);
-        return orderRepository.save(order);
+        return order;
+    }
+
+    private static String requestHash(CreateOrderRequest request) {
+        StringBuilder canonical = new StringBuilder()
+            .append(request.getBuyerId()).append('|')
+            .append(request.getShippingAddressId());
+        for (OrderItemRequest item : request.getItems()) {
+            canonical.append('|').append(item.getProductId()).append(':').append(item.getQuantity());
+        }
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
     }
 
     private OrderShippingAddress snapshotAddress(Address address) {
@@ -117,4 +344,30 @@ public class OrderService {
         shippingAddress.setPhoneNumber(address.getPhoneNumber());
         return shippingAddress;
     }
+
+    public static class BatchOutcome {
+        private final Order order;
+        private final String error;
+
+        private BatchOutcome(Order order, String error) {
+            this.order = order;
+            this.error = error;
+        }
+
+        static BatchOutcome placed(Order order) {
+            return new BatchOutcome(order, null);
+        }
+
+        static BatchOutcome failed(String error) {
+            return new BatchOutcome(null, error);
+        }
+
+        public Order getOrder() {
+            return order;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
 }
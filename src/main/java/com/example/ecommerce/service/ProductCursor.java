@@ -0,0 +1,64 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.model.Product;
+import com.example.ecommerce.repository.ProductSort;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class ProductCursor {
+    private final ProductSort sort;
+    private final BigDecimal price;
+    private final Long id;
+
+    public ProductCursor(ProductSort sort, BigDecimal price, Long id) {
+        this.sort = sort;
+        this.price = price;
+        this.id = id;
+    }
+
+    public static ProductCursor after(ProductSort sort, Product product) {
+        return new ProductCursor(sort, product.getPrice(), product.getId());
+    }
+
+    public static ProductCursor decode(String value, ProductSort expectedSort) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\|", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Unexpected cursor format");
+            }
+            ProductSort sort = ProductSort.valueOf(parts[0]);
+            if (sort != expectedSort) {
+                throw new IllegalArgumentException("Cursor was issued for another sort order");
+            }
+            BigDecimal price = parts[1].isEmpty() ? null : new BigDecimal(parts[1]);
+            if (price == null && sort != ProductSort.NEWEST) {
+                throw new IllegalArgumentException("Cursor is missing the price key");
+            }
+            return new ProductCursor(sort, price, Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", ex);
+        }
+    }
+
+    public String encode() {
+        String priceKey = sort == ProductSort.NEWEST || price == null ? "" : price.toPlainString();
+        String raw = sort.name() + "|" + priceKey + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ProductSort getSort() {
+        return sort;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
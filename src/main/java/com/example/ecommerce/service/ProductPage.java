@@ -0,0 +1,22 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.model.Product;
+import java.util.List;
+
+public class ProductPage {
+    private final List<Product> products;
+    private final String nextCursor;
+
+    public ProductPage(List<Product> products, String nextCursor) {
+        this.products = products;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
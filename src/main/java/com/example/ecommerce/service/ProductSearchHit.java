@@ -0,0 +1,33 @@
+package com.example.ecommerce.service;
+
+import java.math.BigDecimal;
+
+public class ProductSearchHit {
+    private final Long productId;
+    private final String name;
+    private final BigDecimal price;
+    private final float score;
+
+    public ProductSearchHit(Long productId, String name, BigDecimal price, float score) {
+        this.productId = productId;
+        this.name = name;
+        this.price = price;
+        this.score = score;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public float getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,346 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.model.Product;
+import com.example.ecommerce.repository.ProductFilter;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.repository.ProductSort;
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float PREFIX_BOOST = 0.6f;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+
+    private final ProductRepository productRepository;
+    private final int batchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Doc> docsByProductId = new HashMap<>();
+    private Doc[] docs = new Doc[1024];
+    private int nextDocId;
+    private double totalLength;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              @Value("${app.search.index-batch-size:1000}") int batchSize) {
+        this.productRepository = productRepository;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long started = System.nanoTime();
+        ProductFilter filter = new ProductFilter();
+        Long afterId = null;
+        int indexed = 0;
+        while (true) {
+            List<Product> batch = productRepository.findPage(filter, ProductSort.NEWEST, null, afterId, batchSize);
+            for (Product product : batch) {
+                index(product);
+            }
+            indexed += batch.size();
+            if (batch.size() < batchSize) {
+                break;
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        log.info("Indexed {} products for search in {} ms", indexed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public void index(Product product) {
+        Map<String, Float> frequencies = new HashMap<>();
+        for (String token : tokenize(product.getName())) {
+            frequencies.merge(token, NAME_WEIGHT, Float::sum);
+        }
+        for (String token : tokenize(product.getDescription())) {
+            frequencies.merge(token, 1.0f, Float::sum);
+        }
+        float length = 0;
+        for (float frequency : frequencies.values()) {
+            length += frequency;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Doc existing = docsByProductId.get(product.getId());
+            int docId;
+            if (existing != null) {
+                docId = existing.id;
+                unlink(existing);
+            } else {
+                docId = nextDocId++;
+                if (docId == docs.length) {
+                    docs = Arrays.copyOf(docs, docs.length * 2);
+                }
+            }
+            Postings[] postings = new Postings[frequencies.size()];
+            int i = 0;
+            for (Map.Entry<String, Float> entry : frequencies.entrySet()) {
+                Postings termPostings = terms.computeIfAbsent(entry.getKey(), Postings::new);
+                termPostings.put(docId, entry.getValue());
+                postings[i++] = termPostings;
+            }
+            Doc doc = new Doc(docId, product.getId(), product.getName(), product.getPrice(), length, postings);
+            docs[docId] = doc;
+            docsByProductId.put(product.getId(), doc);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Doc existing = docsByProductId.remove(productId);
+            if (existing != null) {
+                unlink(existing);
+                docs[existing.id] = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ProductSearchHit> search(String query, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = docsByProductId.size();
+            if (docCount == 0) {
+                return List.of();
+            }
+            float averageLength = (float) (totalLength / docCount);
+
+            List<List<Match>> matchesByToken = new ArrayList<>(tokens.size());
+            int driver = -1;
+            long driverSize = Long.MAX_VALUE;
+            for (String token : tokens) {
+                List<Match> matches = expand(token, docCount);
+                if (matches.isEmpty()) {
+                    return List.of();
+                }
+                long size = 0;
+                for (Match match : matches) {
+                    size += match.postings.size;
+                }
+                if (size < driverSize) {
+                    driverSize = size;
+                    driver = matchesByToken.size();
+                }
+                matchesByToken.add(matches);
+            }
+
+            PriorityQueue<ProductSearchHit> top = new PriorityQueue<>(
+                limit + 1, Comparator.comparingDouble(ProductSearchHit::getScore));
+            List<Match> driverMatches = matchesByToken.get(driver);
+            Set<Integer> seen = driverMatches.size() > 1 ? new HashSet<>() : null;
+            for (Match driverMatch : driverMatches) {
+                Postings postings = driverMatch.postings;
+                for (int p = 0; p < postings.size; p++) {
+                    int docId = postings.docIds[p];
+                    if (seen != null && !seen.add(docId)) {
+                        continue;
+                    }
+                    Doc doc = docs[docId];
+                    float score = 0;
+                    boolean matchesAll = true;
+                    for (List<Match> tokenMatches : matchesByToken) {
+                        float best = 0;
+                        for (Match match : tokenMatches) {
+                            int index = match.postings.indexOf(docId);
+                            if (index >= 0) {
+                                best = Math.max(best, match.score(match.postings.frequencies[index], doc.length, averageLength));
+                            }
+                        }
+                        if (best == 0) {
+                            matchesAll = false;
+                            break;
+                        }
+                        score += best;
+                    }
+                    if (!matchesAll) {
+                        continue;
+                    }
+                    if (top.size() < limit) {
+                        top.add(new ProductSearchHit(doc.productId, doc.name, doc.price, score));
+                    } else if (score > top.peek().getScore()) {
+                        top.poll();
+                        top.add(new ProductSearchHit(doc.productId, doc.name, doc.price, score));
+                    }
+                }
+            }
+
+            List<ProductSearchHit> hits = new ArrayList<>(top);
+            hits.sort(Comparator.comparingDouble(ProductSearchHit::getScore).reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Match> expand(String token, int docCount) {
+        List<Match> matches = new ArrayList<>();
+        Postings exact = terms.get(token);
+        if (exact != null) {
+            matches.add(new Match(exact, idf(exact.size, docCount)));
+        }
+        if (token.length() < MIN_PREFIX_LENGTH) {
+            return matches;
+        }
+        NavigableMap<String, Postings> prefixed = terms.subMap(token, false, token + Character.MAX_VALUE, false);
+        int expansions = 0;
+        for (Postings postings : prefixed.values()) {
+            if (expansions++ == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            matches.add(new Match(postings, idf(postings.size, docCount) * PREFIX_BOOST));
+        }
+        return matches;
+    }
+
+    private void unlink(Doc doc) {
+        for (Postings postings : doc.postings) {
+            postings.remove(doc.id);
+            if (postings.size == 0) {
+                terms.remove(postings.term);
+            }
+        }
+        totalLength -= doc.length;
+    }
+
+    private static float idf(int documentFrequency, int docCount) {
+        return (float) Math.log(1 + (docCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+            .replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static final class Doc {
+        private final int id;
+        private final Long productId;
+        private final String name;
+        private final BigDecimal price;
+        private final float length;
+        private final Postings[] postings;
+
+        private Doc(int id, Long productId, String name, BigDecimal price, float length, Postings[] postings) {
+            this.id = id;
+            this.productId = productId;
+            this.name = name;
+            this.price = price;
+            this.length = length;
+            this.postings = postings;
+        }
+    }
+
+    private static final class Match {
+        private final Postings postings;
+        private final float weight;
+
+        private Match(Postings postings, float weight) {
+            this.postings = postings;
+            this.weight = weight;
+        }
+
+        private float score(float frequency, float length, float averageLength) {
+            float norm = K1 * (1 - B + B * length / averageLength);
+            return weight * frequency * (K1 + 1) / (frequency + norm);
+        }
+    }
+
+    private static final class Postings {
+        private final String term;
+        private int[] docIds = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+
+        private Postings(String term) {
+            this.term = term;
+        }
+
+        private int indexOf(int docId) {
+            return Arrays.binarySearch(docIds, 0, size, docId);
+        }
+
+        private void put(int docId, float frequency) {
+            int index = indexOf(docId);
+            if (index >= 0) {
+                frequencies[index] = frequency;
+                return;
+            }
+            int insertAt = -index - 1;
+            if (size == docIds.length) {
+                docIds = Arrays.copyOf(docIds, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(docIds, insertAt, docIds, insertAt + 1, size - insertAt);
+            System.arraycopy(frequencies, insertAt, frequencies, insertAt + 1, size - insertAt);
+            docIds[insertAt] = docId;
+            frequencies[insertAt] = frequency;
+            size++;
+        }
+
+        private void remove(int docId) {
+            int index = indexOf(docId);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(docIds, index + 1, docIds, index, size - index - 1);
+            System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+            size--;
+        }
+    }
+}
@@ -1,19 +1,38 @@
 package com.example.ecommerce.service;
 
-import com.example.ecommerce.model.AppUser;
 import com.example.ecommerce.model.Product;
 import com.example.ecommerce.model.ProductImage;
+import com.example.ecommerce.model.ProductImageVariant;
 import com.example.ecommerce.model.Role;
+import com.example.ecommerce.repository.AppUserRepository;
+import com.example.ecommerce.repository.ProductFilter;
 import com.example.ecommerce.repository.ProductImageRepository;
+import com.example.ecommerce.repository.ProductImageVariantRepository;
 import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.repository.ProductSort;
+import com.example.ecommerce.security.AuthenticatedUser;
+import com.example.ecommerce.web.dto.ProductPatchRequest;
 import com.example.ecommerce.web.dto.ProductRequest;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.springframework.core.io.Resource;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -22,20 +41,68 @@ import org.springframework.web.server.ResponseStatusException;
 @Service
 public class ProductService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_STOCK_SLOTS = 64;
+
     private final ProductRepository productRepository;
     private final ProductImageRepository productImageRepository;
+    private final AppUserRepository appUserRepository;
     private final StorageService storageService;
+    private final ProductViewCache productViewCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductImageVariantRepository productImageVariantRepository;
+    private final ImageVariantGenerator imageVariantGenerator;
+    private final ImageUploader imageUploader;
+    private final StorageOutbox storageOutbox;
+    private final ImageMetadataCache imageMetadataCache;
+    private final InventoryReservations inventoryReservations;
+    private final TransactionTemplate transactionTemplate;
 
     public ProductService(ProductRepository productRepository,
                           ProductImageRepository productImageRepository,
-                          StorageService storageService) {
+                          AppUserRepository appUserRepository,
+                          StorageService storageService,
+                          ProductViewCache productViewCache,
+                          ProductSearchIndex productSearchIndex,
+                          ProductImageVariantRepository productImageVariantRepository,
+                          ImageVariantGenerator imageVariantGenerator,
+                          ImageUploader imageUploader,
+                          StorageOutbox storageOutbox,
+                          ImageMetadataCache imageMetadataCache,
+                          InventoryReservations inventoryReservations,
+                          PlatformTransactionManager transactionManager) {
         this.productRepository = productRepository;
         this.productImageRepository = productImageRepository;
+        this.appUserRepository = appUserRepository;
         this.storageService = storageService;
+        this.productViewCache = productViewCache;
+        this.productSearchIndex = productSearchIndex;
+        this.productImageVariantRepository = productImageVariantRepository;
+        this.imageVariantGenerator = imageVariantGenerator;
+        this.imageUploader = imageUploader;
+        this.storageOutbox = storageOutbox;
+        this.imageMetadataCache = imageMetadataCache;
+        this.inventoryReservations = inventoryReservations;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    public List<Product> listProducts() {
-        return productRepository.findAll();
+    public ProductPage listProducts(ProductFilter filter, ProductSort sort, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        ProductCursor after = cursor == null || cursor.isBlank() ? null : ProductCursor.decode(cursor, sort);
+        List<Product> products = productRepository.findPage(
+            filter,
+            sort,
+            after == null ? null : after.getPrice(),
+            after == null ? null : after.getId(),
+            limit + 1
+        );
+        if (products.size() <= limit) {
+            return new ProductPage(products, null);
+        }
+        List<Product> page = new ArrayList<>(products.subList(0, limit));
+        return new ProductPage(page, ProductCursor.after(sort, page.get(limit - 1)).encode());
     }
 
     public Product getProduct(Long id) {
@@ -43,8 +110,36 @@ public class ProductService {
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
     }
 
-    @Transactional
-    public Product createProduct(ProductRequest request, AppUser seller, List<MultipartFile> images) {
+    public Map<Long, Product> getProductsWithSellers(Collection<Long> ids) {
+        Map<Long, Product> productsById = findProductsWithSellers(ids);
+        for (Long id : ids) {
+            if (!productsById.containsKey(id)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found: " + id);
+            }
+        }
+        return productsById;
+    }
+
+    public Map<Long, Product> findProductsWithSellers(Collection<Long> ids) {
+        return productRepository.findAllWithSellerByIdIn(ids).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    public List<ProductSearchHit> searchProducts(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query is required");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return productSearchIndex.search(query, limit);
+    }
+
+    public ProductView getProductView(Long id) {
+        return productViewCache.get(id, productId -> ProductView.of(getProduct(productId), listImages(productId)));
+    }
+
+    public Product createProduct(ProductRequest request, AuthenticatedUser seller, List<MultipartFile> images) {
         if (seller.getRole() == Role.SELLER && !seller.isSellerVerified()) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Seller is not verified");
         }
@@ -52,89 +147,185 @@ public class ProductService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one product image is required");
         }
 
-        Product product = new Product();
-        product.setName(request.getName());
-        product.setDescription(request.getDescription());
-        product.setPrice(request.getPrice());
-        product.setStockQuantity(request.getStockQuantity());
-        product.setSeller(seller);
-        Product saved = productRepository.save(product);
-
-        List<ProductImage> imageEntities = images.stream()
-            .map(file -> {
-                StoredFile storedFile = storageService.store(file);
-                ProductImage image = new ProductImage();
-                image.setProduct(saved);
-                image.setStorageKey(storedFile.getKey());
-                image.setOriginalFilename(storedFile.getOriginalFilename());
-                image.setContentType(storedFile.getContentType());
-                image.setSize(storedFile.getSize());
-                image.setCreatedAt(Instant.now());
-                return image;
-            })
-            .collect(Collectors.toList());
-        productImageRepository.saveAll(imageEntities);
-
-        return saved;
+        List<StoredFile> storedFiles = imageUploader.uploadAll(images);
+        return saveWithImages(storedFiles, status -> {
+            Product product = new Product();
+            product.setName(request.getName());
+            product.setDescription(request.getDescription());
+            product.setPrice(request.getPrice());
+            product.setStockQuantity(request.getStockQuantity());
+            product.setSeller(appUserRepository.getReferenceById(seller.getId()));
+            Product saved = productRepository.save(product);
+
+            List<ProductImage> imageEntities = toImages(saved, storedFiles, 0);
+            productImageRepository.saveAll(imageEntities);
+            imageMetadataCache.putAfterCommit(imageEntities);
+            imageVariantGenerator.generateAfterCommit(imageEntities);
+            productViewCache.evict(saved.getId());
+            TransactionCallbacks.afterCommit(() -> productSearchIndex.index(saved));
+
+            return saved;
+        });
     }
 
-    @Transactional
-    public Product updateProduct(Long productId, ProductRequest request, AppUser seller, List<MultipartFile> images) {
+    public Product updateProduct(Long productId, ProductRequest request, AuthenticatedUser seller, List<MultipartFile> images) {
         if (seller.getRole() == Role.SELLER && !seller.isSellerVerified()) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Seller is not verified");
         }
         if (images == null || images.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one product image is required");
         }
+        checkCanUpdate(getProduct(productId), seller);
 
-        Product product = getProduct(productId);
-        if (seller.getRole() == Role.SELLER) {
-            if (product.getSeller() == null || !product.getSeller().getId().equals(seller.getId())) {
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Cannot update another seller's product");
-            }
-        }
+        List<StoredFile> storedFiles = imageUploader.uploadAll(images);
+        return saveWithImages(storedFiles, status -> {
+            Product product = getProduct(productId);
+            checkCanUpdate(product, seller);
 
-        product.setName(request.getName());
-        product.setDescription(request.getDescription());
-        product.setPrice(request.getPrice());
-        product.setStockQuantity(request.getStockQuantity());
-        Product saved = productRepository.save(product);
+            product.setName(request.getName());
+            product.setDescription(request.getDescription());
+            product.setPrice(request.getPrice());
+            inventoryReservations.adjustAfterCommit(productId, request.getStockQuantity());
+            setStockQuantity(product, request.getStockQuantity());
+            Product saved = productRepository.save(product);
 
-        List<ProductImage> existingImages = productImageRepository.findByProductIdOrderByIdAsc(productId);
-        for (ProductImage image : existingImages) {
-            storageService.delete(image.getStorageKey());
+            deleteImages(productImageRepository.findByProductIdOrderByPositionAscIdAsc(productId));
+
+            List<ProductImage> imageEntities = toImages(saved, storedFiles, 0);
+            productImageRepository.saveAll(imageEntities);
+            imageMetadataCache.putAfterCommit(imageEntities);
+            imageVariantGenerator.generateAfterCommit(imageEntities);
+            productViewCache.evict(saved.getId());
+            TransactionCallbacks.afterCommit(() -> productSearchIndex.index(saved));
+
+            return saved;
+        });
+    }
+
+    public Product patchProduct(Long productId, ProductPatchRequest request, AuthenticatedUser seller, List<MultipartFile> newImages) {
+        if (seller.getRole() == Role.SELLER && !seller.isSellerVerified()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Seller is not verified");
         }
-        productImageRepository.deleteAll(existingImages);
+        checkCanUpdate(getProduct(productId), seller);
+        ProductPatchRequest patch = request == null ? new ProductPatchRequest() : request;
+
+        List<StoredFile> storedFiles = newImages == null || newImages.isEmpty()
+            ? List.of()
+            : imageUploader.uploadAll(newImages);
+        return saveWithImages(storedFiles, status -> {
+            Product product = getProduct(productId);
+            checkCanUpdate(product, seller);
+
+            if (patch.getName() != null) {
+                product.setName(patch.getName());
+            }
+            if (patch.getDescription() != null) {
+                product.setDescription(patch.getDescription());
+            }
+            if (patch.getPrice() != null) {
+                product.setPrice(patch.getPrice());
+            }
+            if (patch.getStockQuantity() != null) {
+                inventoryReservations.adjustAfterCommit(productId, patch.getStockQuantity());
+                setStockQuantity(product, patch.getStockQuantity());
+            }
+            Product saved = productRepository.save(product);
+
+            Map<Long, ProductImage> kept = new LinkedHashMap<>();
+            productImageRepository.findByProductIdOrderByPositionAscIdAsc(productId)
+                .forEach(image -> kept.put(image.getId(), image));
+            List<ProductImage> removed = new ArrayList<>();
+            if (patch.getRemoveImageIds() != null) {
+                for (Long imageId : patch.getRemoveImageIds()) {
+                    ProductImage image = kept.remove(imageId);
+                    if (image == null) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Image " + imageId + " does not belong to product");
+                    }
+                    removed.add(image);
+                }
+            }
+            List<ProductImage> ordered = new ArrayList<>();
+            if (patch.getImageOrder() != null) {
+                for (Long imageId : patch.getImageOrder()) {
+                    ProductImage image = kept.remove(imageId);
+                    if (image == null) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid image order entry: " + imageId);
+                    }
+                    ordered.add(image);
+                }
+            }
+            ordered.addAll(kept.values());
+            List<ProductImage> added = toImages(saved, storedFiles, ordered.size());
+            if (ordered.isEmpty() && added.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one product image is required");
+            }
+
+            for (int i = 0; i < ordered.size(); i++) {
+                ordered.get(i).setPosition(i);
+            }
+            deleteImages(removed);
+            productImageRepository.saveAll(added);
+            imageMetadataCache.putAfterCommit(added);
+            imageVariantGenerator.generateAfterCommit(added);
 
-        List<ProductImage> imageEntities = images.stream()
-            .map(file -> {
-                StoredFile storedFile = storageService.store(file);
-                ProductImage image = new ProductImage();
-                image.setProduct(saved);
-                image.setStorageKey(storedFile.getKey());
-                image.setOriginalFilename(storedFile.getOriginalFilename());
-                image.setContentType(storedFile.getContentType());
-                image.setSize(storedFile.getSize());
-                image.setCreatedAt(Instant.now());
-                return image;
-            })
-            .collect(Collectors.toList());
-        productImageRepository.saveAll(imageEntities);
+            List<ProductImage> imageEntities = new ArrayList<>(ordered);
+            imageEntities.addAll(added);
+            productViewCache.evict(saved.getId());
+            TransactionCallbacks.afterCommit(() -> productSearchIndex.index(saved));
 
-        return saved;
+            return saved;
+        });
+    }
+
+    @Transactional
+    public Product configureStockSlots(Long productId, int slots) {
+        if (slots < 0 || slots > MAX_STOCK_SLOTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Stock slots must be between 0 and " + MAX_STOCK_SLOTS);
+        }
+        if (slots > 0 && inventoryReservations.manages(productId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Product stock is reserved in memory");
+        }
+        if (!productRepository.configureStockSlots(productId, slots)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
+        productViewCache.evict(productId);
+        return getProduct(productId);
     }
 
     public List<Product> listSellerProducts(Long sellerId) {
         return productRepository.findBySellerId(sellerId);
     }
 
-    public void reduceStock(Product product, int quantity) {
-        int remaining = product.getStockQuantity() - quantity;
-        if (remaining < 0) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Insufficient stock for product " + product.getId());
+    @Transactional
+    public void reduceStock(Map<Long, Integer> quantitiesByProductId) {
+        tryReduceStock(quantitiesByProductId).ifPresent(productId -> {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Insufficient stock for product " + productId);
+        });
+    }
+
+    public Optional<Long> tryReduceStock(Map<Long, Integer> quantitiesByProductId) {
+        if (quantitiesByProductId.isEmpty()) {
+            return Optional.empty();
+        }
+        SortedMap<Long, Integer> stored = new TreeMap<>();
+        Map<Long, Integer> reserved = new LinkedHashMap<>();
+        quantitiesByProductId.forEach((productId, quantity) ->
+            (inventoryReservations.manages(productId) ? reserved : stored).put(productId, quantity));
+        if (!stored.isEmpty()) {
+            List<Long> rejected = productRepository.decrementStock(stored);
+            if (!rejected.isEmpty()) {
+                return Optional.of(rejected.get(0));
+            }
+            stored.keySet().forEach(productViewCache::evict);
         }
-        product.setStockQuantity(remaining);
-        productRepository.save(product);
+        return inventoryReservations.reserve(reserved);
+    }
+
+    private void setStockQuantity(Product product, Integer stockQuantity) {
+        if (product.getStockSlots() > 0) {
+            productRepository.redistributeStockSlots(product.getId(), product.getStockSlots(), stockQuantity);
+        }
+        product.setStockQuantity(stockQuantity);
     }
 
     public BigDecimal priceFor(Product product) {
@@ -142,11 +333,11 @@ public class ProductService {
     }
 
     public List<ProductImage> listImages(Long productId) {
-        return productImageRepository.findByProductIdOrderByIdAsc(productId);
+        return productImageRepository.findByProductIdOrderByPositionAscIdAsc(productId);
     }
 
     public Map<Long, List<ProductImage>> listImagesByProductIds(List<Long> productIds) {
-        List<ProductImage> images = productImageRepository.findByProductIdInOrderByIdAsc(productIds);
+        List<ProductImage> images = productImageRepository.findByProductIdInOrderByPositionAscIdAsc(productIds);
         return images.stream().collect(Collectors.groupingBy(image -> image.getProduct().getId()));
     }
 
@@ -155,7 +346,87 @@ public class ProductService {
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product image not found"));
     }
 
-    public Resource getImageResource(ProductImage image) {
-        return storageService.loadAsResource(image.getStorageKey());
+    public Optional<ProductImageVariant> findVariant(Long imageId, int width) {
+        if (width < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Width must be positive");
+        }
+        return productImageVariantRepository.findByImageIdOrderByWidthAsc(imageId).stream()
+            .filter(variant -> variant.getWidth() >= width)
+            .findFirst();
+    }
+
+    public ImageMetadata getImageMetadata(Long imageId) {
+        return imageMetadataCache.get(imageId, id -> ImageMetadata.of(getImage(id)));
+    }
+
+    public ImageMetadata getImageMetadata(Long imageId, String fingerprint) {
+        ImageMetadata metadata = getImageMetadata(imageId);
+        if (!ImageFingerprint.matches(metadata.getFingerprint(), fingerprint)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product image not found");
+        }
+        return metadata;
+    }
+
+    public Resource getImageResource(String storageKey) {
+        return storageService.loadAsResource(storageKey);
+    }
+
+    public Optional<Path> getImageFile(String storageKey) {
+        return storageService.resolveLocalFile(storageKey);
+    }
+
+    private Product saveWithImages(List<StoredFile> storedFiles, TransactionCallback<Product> action) {
+        AtomicBoolean committed = new AtomicBoolean();
+        try {
+            return transactionTemplate.execute(status -> {
+                TransactionCallbacks.afterCommit(() -> committed.set(true));
+                return action.doInTransaction(status);
+            });
+        } catch (RuntimeException ex) {
+            if (!committed.get()) {
+                imageUploader.deleteAll(storedFiles);
+            }
+            throw ex;
+        }
+    }
+
+    private void checkCanUpdate(Product product, AuthenticatedUser seller) {
+        if (seller.getRole() == Role.SELLER) {
+            if (product.getSeller() == null || !product.getSeller().getId().equals(seller.getId())) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Cannot update another seller's product");
+            }
+        }
+    }
+
+    private void deleteImages(List<ProductImage> images) {
+        if (images.isEmpty()) {
+            return;
+        }
+        List<ProductImageVariant> variants = productImageVariantRepository.findByImageIdIn(
+            images.stream().map(ProductImage::getId).collect(Collectors.toList())
+        );
+        List<String> staleKeys = new ArrayList<>();
+        variants.forEach(variant -> staleKeys.add(variant.getStorageKey()));
+        images.forEach(image -> staleKeys.add(image.getStorageKey()));
+        productImageVariantRepository.deleteAll(variants);
+        productImageRepository.deleteAll(images);
+        imageMetadataCache.evictAfterCommit(images.stream().map(ProductImage::getId).collect(Collectors.toList()));
+        storageOutbox.enqueueDeletes(staleKeys);
+    }
+
+    private static List<ProductImage> toImages(Product product, List<StoredFile> storedFiles, int firstPosition) {
+        List<ProductImage> images = new ArrayList<>(storedFiles.size());
+        for (StoredFile storedFile : storedFiles) {
+            ProductImage image = new ProductImage();
+            image.setProduct(product);
+            image.setStorageKey(storedFile.getKey());
+            image.setOriginalFilename(storedFile.getOriginalFilename());
+            image.setContentType(storedFile.getContentType());
+            image.setSize(storedFile.getSize());
+            image.setPosition(firstPosition + images.size());
+            image.setCreatedAt(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+            images.add(image);
+        }
+        return images;
     }
 }
@@ -0,0 +1,93 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.model.Product;
+import com.example.ecommerce.model.ProductImage;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ProductView {
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final BigDecimal price;
+    private final Integer stockQuantity;
+    private final Long sellerId;
+    private final List<Image> images;
+
+    public ProductView(Long id,
+                       String name,
+                       String description,
+                       BigDecimal price,
+                       Integer stockQuantity,
+                       Long sellerId,
+                       List<Image> images) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+        this.sellerId = sellerId;
+        this.images = List.copyOf(images);
+    }
+
+    public static ProductView of(Product product, List<ProductImage> images) {
+        return new ProductView(
+            product.getId(),
+            product.getName(),
+            product.getDescription(),
+            product.getPrice(),
+            product.getStockQuantity(),
+            product.getSeller() == null ? null : product.getSeller().getId(),
+            images.stream()
+                .map(image -> new Image(image.getId(), ImageFingerprint.of(image)))
+                .collect(Collectors.toList())
+        );
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public Long getSellerId() {
+        return sellerId;
+    }
+
+    public List<Image> getImages() {
+        return images;
+    }
+
+    public static class Image {
+        private final Long id;
+        private final String fingerprint;
+
+        public Image(Long id, String fingerprint) {
+            this.id = id;
+            this.fingerprint = fingerprint;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+    }
+}
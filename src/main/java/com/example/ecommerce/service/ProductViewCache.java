@@ -0,0 +1,36 @@
+package com.example.ecommerce.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductViewCache {
+
+    private final Cache<Long, ProductView> cache;
+
+    public ProductViewCache(@Value("${app.catalog.cache.max-size:10000}") long maxSize,
+                            @Value("${app.catalog.cache.ttl:10m}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "productViews");
+    }
+
+    public ProductView get(Long productId, Function<Long, ProductView> loader) {
+        return cache.get(productId, loader);
+    }
+
+    public void evict(Long productId) {
+        cache.invalidate(productId);
+        TransactionCallbacks.afterCommit(() -> cache.invalidate(productId));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class StockSlotRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(StockSlotRebalancer.class);
+
+    private final ProductRepository productRepository;
+    private final ProductViewCache productViewCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter rebalanced;
+
+    public StockSlotRebalancer(ProductRepository productRepository,
+                               ProductViewCache productViewCache,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.productViewCache = productViewCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebalanced = Counter.builder("inventory.stock.slots.rebalanced").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.stock-slots.rebalance-interval:PT30S}")
+    public void rebalance() {
+        for (Long productId : productRepository.findSlottedProductIds()) {
+            try {
+                Boolean moved = transactionTemplate.execute(status -> productRepository.rebalanceStockSlots(productId));
+                if (Boolean.TRUE.equals(moved)) {
+                    rebalanced.increment();
+                    productViewCache.evict(productId);
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Failed to rebalance stock slots for product {}", productId, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.ecommerce.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class StorageOrphanSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageOrphanSweeper.class);
+
+    private static final String REFERENCED_SQL =
+        "SELECT storage_key FROM product_images WHERE storage_key IN (:keys) "
+            + "UNION SELECT storage_key FROM product_image_variants WHERE storage_key IN (:keys) "
+            + "UNION SELECT storage_key FROM storage_outbox WHERE storage_key IN (:keys)";
+
+    private final StorageService storageService;
+    private final StorageOutbox storageOutbox;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Duration gracePeriod;
+    private final int batchSize;
+    private final Counter orphans;
+
+    public StorageOrphanSweeper(StorageService storageService,
+                                StorageOutbox storageOutbox,
+                                NamedParameterJdbcTemplate jdbcTemplate,
+                                @Value("${app.storage.sweeper.enabled:false}") boolean enabled,
+                                @Value("${app.storage.sweeper.grace-period:24h}") Duration gracePeriod,
+                                @Value("${app.storage.sweeper.batch-size:500}") int batchSize,
+                                MeterRegistry meterRegistry) {
+        this.storageService = storageService;
+        this.storageOutbox = storageOutbox;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.gracePeriod = gracePeriod;
+        this.batchSize = batchSize;
+        this.orphans = Counter.builder("storage.sweeper.orphans").register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.storage.sweeper.initial-delay:PT10M}",
+               fixedDelayString = "${app.storage.sweeper.interval:PT6H}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        List<String> batch = new ArrayList<>(batchSize);
+        int[] totals = new int[2];
+        storageService.forEachKey(Instant.now().minus(gracePeriod), key -> {
+            batch.add(key);
+            if (batch.size() == batchSize) {
+                totals[0] += batch.size();
+                totals[1] += reconcile(batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            totals[0] += batch.size();
+            totals[1] += reconcile(batch);
+        }
+        log.info("Checked {} stored images, queued {} orphans for deletion in {} ms",
+            totals[0], totals[1], (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private int reconcile(List<String> keys) {
+        Set<String> referenced = new HashSet<>(jdbcTemplate.queryForList(
+            REFERENCED_SQL, new MapSqlParameterSource("keys", keys), String.class));
+        List<String> unreferenced = new ArrayList<>();
+        for (String key : keys) {
+            if (!referenced.contains(key)) {
+                unreferenced.add(key);
+            }
+        }
+        storageOutbox.enqueueDeletes(unreferenced);
+        orphans.increment(unreferenced.size());
+        return unreferenced.size();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.ecommerce.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class StorageOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageOutbox.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String ENQUEUE_SQL =
+        "INSERT INTO storage_outbox (storage_key, attempts, next_attempt_at, created_at) VALUES (?, 0, now(), now())";
+    private static final String CLAIM_SQL =
+        "UPDATE storage_outbox SET next_attempt_at = ? "
+            + "WHERE id IN (SELECT id FROM storage_outbox WHERE next_attempt_at <= now() "
+            + "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) "
+            + "RETURNING id, storage_key, attempts";
+    private static final String DELIVER_SQL = "DELETE FROM storage_outbox WHERE id = ?";
+    private static final String RETRY_SQL =
+        "UPDATE storage_outbox SET attempts = ?, next_attempt_at = ?, last_error = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StorageService storageService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration lease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Counter deleted;
+    private final Counter failed;
+
+    public StorageOutbox(JdbcTemplate jdbcTemplate,
+                         StorageService storageService,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.storage.outbox.batch-size:100}") int batchSize,
+                         @Value("${app.storage.outbox.lease:5m}") Duration lease,
+                         @Value("${app.storage.outbox.initial-backoff:30s}") Duration initialBackoff,
+                         @Value("${app.storage.outbox.max-backoff:6h}") Duration maxBackoff,
+                         MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.storageService = storageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.deleted = Counter.builder("storage.outbox.deletes").tag("result", "success").register(meterRegistry);
+        this.failed = Counter.builder("storage.outbox.deletes").tag("result", "failure").register(meterRegistry);
+    }
+
+    public void enqueueDeletes(Collection<String> storageKeys) {
+        if (storageKeys.isEmpty()) {
+            return;
+        }
+        List<Object[]> batchArgs = new ArrayList<>(storageKeys.size());
+        for (String storageKey : storageKeys) {
+            batchArgs.add(new Object[] {storageKey});
+        }
+        jdbcTemplate.batchUpdate(ENQUEUE_SQL, batchArgs);
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.outbox.poll-interval:PT5S}")
+    public void relay() {
+        int claimed;
+        do {
+            claimed = relayBatch();
+        } while (claimed == batchSize);
+    }
+
+    private int relayBatch() {
+        List<Entry> entries = jdbcTemplate.query(CLAIM_SQL,
+            (rs, rowNum) -> new Entry(rs.getLong(1), rs.getString(2), rs.getInt(3)),
+            Timestamp.from(Instant.now().plus(lease)),
+            batchSize);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        int completed = 0;
+        List<Object[]> retries = new ArrayList<>();
+        for (Entry entry : entries) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> deliver(entry)))) {
+                    completed++;
+                }
+            } catch (RuntimeException ex) {
+                int attempts = entry.attempts + 1;
+                Instant nextAttempt = Instant.now().plus(backoff(attempts));
+                retries.add(new Object[] {attempts, Timestamp.from(nextAttempt), truncate(ex.getMessage()), entry.id});
+                log.warn("Failed to delete stored image {} (attempt {})", entry.storageKey, attempts, ex);
+            }
+        }
+        deleted.increment(completed);
+        if (!retries.isEmpty()) {
+            jdbcTemplate.batchUpdate(RETRY_SQL, retries);
+            failed.increment(retries.size());
+        }
+        return entries.size();
+    }
+
+    private boolean deliver(Entry entry) {
+        if (jdbcTemplate.update(DELIVER_SQL, entry.id) == 0) {
+            return false;
+        }
+        storageService.delete(entry.storageKey);
+        return true;
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final String storageKey;
+        private final int attempts;
+
+        private Entry(long id, String storageKey, int attempts) {
+            this.id = id;
+            this.storageKey = storageKey;
+            this.attempts = attempts;
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package com.example.ecommerce.service;
 
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Consumer;
 import org.springframework.core.io.Resource;
-import org.springframework.web.multipart.MultipartFile;
 
 public interface StorageService {
-    StoredFile store(MultipartFile file);
+    StoredFile store(Path source, String originalFilename, String contentType);
 
     Resource loadAsResource(String key);
 
+    default Optional<Path> resolveLocalFile(String key) {
+        return Optional.empty();
+    }
+
     void delete(String key);
+
+    default void forEachKey(Instant storedBefore, Consumer<String> action) {
+    }
 }
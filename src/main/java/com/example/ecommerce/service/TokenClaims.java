@@ -0,0 +1,28 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.security.AuthenticatedUser;
+import java.time.Instant;
+
+public class TokenClaims {
+    private final AuthenticatedUser principal;
+    private final int version;
+    private final Instant expiresAt;
+
+    public TokenClaims(AuthenticatedUser principal, int version, Instant expiresAt) {
+        this.principal = principal;
+        this.version = version;
+        this.expiresAt = expiresAt;
+    }
+
+    public AuthenticatedUser getPrincipal() {
+        return principal;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.ecommerce.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TokenVersionRegistry {
+
+    private static final String VERSION_SQL = "SELECT token_version FROM app_users WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Long, Integer> versions;
+
+    public TokenVersionRegistry(JdbcTemplate jdbcTemplate,
+                                @Value("${app.jwt.version-cache.ttl:30s}") Duration ttl,
+                                @Value("${app.jwt.version-cache.max-size:100000}") long maxSize,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.versions = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "tokenVersions");
+    }
+
+    public int currentVersion(Long userId) {
+        return versions.get(userId, id -> {
+            List<Integer> rows = jdbcTemplate.queryForList(VERSION_SQL, Integer.class, id);
+            return rows.isEmpty() ? 0 : rows.get(0);
+        });
+    }
+
+    public void evictAfterCommit(Long userId) {
+        TransactionCallbacks.afterCommit(() -> versions.invalidate(userId));
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.ecommerce.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+@Component
+public class UploadStager {
+
+    private static final int SNIFF_LENGTH = 12;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final long maxFileSize;
+    private final long maxRequestSize;
+
+    public UploadStager(@Value("${app.uploads.max-file-size:10MB}") DataSize maxFileSize,
+                        @Value("${app.uploads.max-request-size:50MB}") DataSize maxRequestSize) {
+        this.maxFileSize = maxFileSize.toBytes();
+        this.maxRequestSize = maxRequestSize.toBytes();
+    }
+
+    public StagedUpload stage(MultipartFile file, AtomicLong requestBytes) {
+        if (file == null || file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Image file is required");
+        }
+        if (file.getSize() > maxFileSize) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Image exceeds " + maxFileSize + " bytes");
+        }
+
+        Path temp = null;
+        try (InputStream in = file.getInputStream()) {
+            byte[] header = in.readNBytes(SNIFF_LENGTH);
+            String contentType = sniffContentType(header);
+            if (contentType == null) {
+                throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Only JPEG, PNG, GIF and WebP images are supported");
+            }
+
+            temp = Files.createTempFile("upload-", ".tmp");
+            long size = header.length;
+            reserve(requestBytes, header.length);
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                out.write(header);
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxFileSize) {
+                        throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Image exceeds " + maxFileSize + " bytes");
+                    }
+                    reserve(requestBytes, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            String originalFilename = file.getOriginalFilename() == null ? "" : StringUtils.cleanPath(file.getOriginalFilename());
+            return new StagedUpload(temp, originalFilename, contentType, size);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to read upload", e);
+        } catch (RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+
+    private void reserve(AtomicLong requestBytes, long bytes) {
+        if (requestBytes.addAndGet(bytes) > maxRequestSize) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Upload exceeds " + maxRequestSize + " bytes");
+        }
+    }
+
+    static String sniffContentType(byte[] header) {
+        if (startsWith(header, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, 'G', 'I', 'F', '8') && header.length >= 6
+            && (header[4] == '7' || header[4] == '9') && header[5] == 'a') {
+            return "image/gif";
+        }
+        if (startsWith(header, 'R', 'I', 'F', 'F') && header.length >= 12
+            && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] header, int... magic) {
+        if (header.length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((header[i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // temp files are also cleaned up by the OS
+        }
+    }
+
+    public static class StagedUpload {
+        private final Path path;
+        private final String originalFilename;
+        private final String contentType;
+        private final long size;
+
+        public StagedUpload(Path path, String originalFilename, String contentType, long size) {
+            this.path = path;
+            this.originalFilename = originalFilename;
+            this.contentType = contentType;
+            this.size = size;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public String getOriginalFilename() {
+            return originalFilename;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public void discard() {
+            deleteQuietly(path);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.ecommerce.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+public class WriteBackStorageService implements StorageService, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBackStorageService.class);
+
+    private static final String PARTIAL_SUFFIX = ".part";
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final String INSERT_SQL =
+        "INSERT INTO pending_uploads (storage_key, staging_file, staged_on, original_filename, content_type, size, "
+            + "attempts, next_attempt_at, created_at) VALUES (?, ?, ?, ?, ?, ?, 0, now(), now())";
+    private static final String CLAIM_SQL =
+        "UPDATE pending_uploads SET next_attempt_at = ?, claim_token = ? "
+            + "WHERE storage_key IN (SELECT storage_key FROM pending_uploads WHERE staged_on = ? AND next_attempt_at <= now() "
+            + "ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) "
+            + "RETURNING storage_key, staging_file, original_filename, content_type, attempts";
+    private static final String COMPLETE_SQL = "DELETE FROM pending_uploads WHERE storage_key = ? AND claim_token = ?";
+    private static final String DELETE_SQL = "DELETE FROM pending_uploads WHERE storage_key = ?";
+    private static final String EXISTS_SQL = "SELECT COUNT(*) FROM pending_uploads WHERE storage_key = ?";
+    private static final String EXTEND_SQL =
+        "UPDATE pending_uploads SET next_attempt_at = ? WHERE storage_key = ? AND claim_token = ?";
+    private static final String RETRY_SQL =
+        "UPDATE pending_uploads SET attempts = ?, next_attempt_at = ?, last_error = ?, claim_token = NULL "
+            + "WHERE storage_key = ? AND claim_token = ?";
+
+    private final KeyAssigningStorageService delegate;
+    private final Path stagingLocation;
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+    private final int workers;
+    private final Duration lease;
+    private final Duration maxBackoff;
+    private final ScheduledExecutorService poller;
+    private final ExecutorService shippers;
+    private final Map<String, UUID> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter shipped;
+    private final Counter failed;
+    private final Timer shipLatency;
+
+    public WriteBackStorageService(KeyAssigningStorageService delegate,
+                                   String stagingPath,
+                                   JdbcTemplate jdbcTemplate,
+                                   String nodeId,
+                                   int workers,
+                                   Duration pollInterval,
+                                   Duration lease,
+                                   Duration maxBackoff,
+                                   MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.stagingLocation = Path.of(stagingPath).toAbsolutePath().normalize();
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = nodeId;
+        this.workers = workers;
+        this.lease = lease;
+        this.maxBackoff = maxBackoff;
+        this.shipped = Counter.builder("storage.writeback.uploads").tag("result", "success").register(meterRegistry);
+        this.failed = Counter.builder("storage.writeback.uploads").tag("result", "failure").register(meterRegistry);
+        this.shipLatency = Timer.builder("storage.writeback.upload.latency").register(meterRegistry);
+        Gauge.builder("storage.writeback.in.flight", inFlight, Map::size).register(meterRegistry);
+        try {
+            Files.createDirectories(stagingLocation);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not initialize upload staging", e);
+        }
+        this.poller = Executors.newSingleThreadScheduledExecutor(daemonThreads("upload-poller-"));
+        this.shippers = Executors.newFixedThreadPool(workers, daemonThreads("upload-shipper-"));
+        this.poller.scheduleWithFixedDelay(this::poll, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public StoredFile store(Path source, String originalFilename, String contentType) {
+        if (contentType == null || !contentType.startsWith("image/")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only image uploads are supported");
+        }
+        try (InputStream in = Files.newInputStream(source)) {
+            return stage(in, originalFilename, contentType);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to stage upload", e);
+        }
+    }
+
+    @Override
+    public Resource loadAsResource(String key) {
+        Path staged = stagingLocation.resolve(stagingFileName(key));
+        if (Files.isReadable(staged)) {
+            return new FileSystemResource(staged);
+        }
+        return delegate.loadAsResource(key);
+    }
+
+    @Override
+    public Optional<Path> resolveLocalFile(String key) {
+        Path staged = stagingLocation.resolve(stagingFileName(key));
+        if (Files.isReadable(staged)) {
+            return Optional.of(staged);
+        }
+        return delegate.resolveLocalFile(key);
+    }
+
+    @Override
+    public void delete(String key) {
+        if (jdbcTemplate.update(DELETE_SQL, key) > 0) {
+            deleteQuietly(stagingLocation.resolve(stagingFileName(key)));
+        }
+        delegate.delete(key);
+    }
+
+    @Override
+    public void forEachKey(Instant storedBefore, Consumer<String> action) {
+        delegate.forEachKey(storedBefore, action);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        poller.shutdownNow();
+        shippers.shutdown();
+        if (!shippers.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            shippers.shutdownNow();
+        }
+    }
+
+    private StoredFile stage(InputStream in, String originalFilename, String contentType) throws IOException {
+        String cleanFilename = originalFilename == null ? "" : StringUtils.cleanPath(originalFilename);
+        String key = delegate.generateKey(cleanFilename);
+        String fileName = stagingFileName(key);
+        Path partial = Files.createTempFile(stagingLocation, fileName, PARTIAL_SUFFIX);
+        try {
+            long size = Files.copy(in, partial, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(partial, stagingLocation.resolve(fileName), StandardCopyOption.ATOMIC_MOVE);
+            jdbcTemplate.update(INSERT_SQL, key, fileName, nodeId, cleanFilename, contentType, size);
+            poller.execute(this::poll);
+            return new StoredFile(key, cleanFilename, contentType, size);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(partial);
+            deleteQuietly(stagingLocation.resolve(fileName));
+            throw e;
+        }
+    }
+
+    private void poll() {
+        try {
+            Timestamp leasedUntil = Timestamp.from(Instant.now().plus(lease));
+            if (!inFlight.isEmpty()) {
+                List<Object[]> extensions = new ArrayList<>(inFlight.size());
+                inFlight.forEach((key, token) -> extensions.add(new Object[] {leasedUntil, key, token}));
+                jdbcTemplate.batchUpdate(EXTEND_SQL, extensions);
+            }
+            int capacity = workers * 2 - inFlight.size();
+            if (capacity <= 0) {
+                return;
+            }
+            UUID token = UUID.randomUUID();
+            List<PendingUpload> claimed = jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new PendingUpload(
+                    rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getInt(5), token),
+                leasedUntil,
+                token,
+                nodeId,
+                capacity);
+            for (PendingUpload upload : claimed) {
+                inFlight.put(upload.storageKey, token);
+                shippers.execute(() -> {
+                    try {
+                        ship(upload);
+                    } finally {
+                        inFlight.remove(upload.storageKey, token);
+                    }
+                });
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to poll pending uploads", ex);
+        }
+    }
+
+    private void ship(PendingUpload upload) {
+        Path staged = stagingLocation.resolve(upload.stagingFile);
+        long started = System.nanoTime();
+        try {
+            delegate.storeAs(upload.storageKey, staged, upload.originalFilename, upload.contentType);
+            shipLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            shipped.increment();
+            if (jdbcTemplate.update(COMPLETE_SQL, upload.storageKey, upload.claimToken) == 0) {
+                if (jdbcTemplate.queryForObject(EXISTS_SQL, Integer.class, upload.storageKey) > 0) {
+                    log.warn("Lost the lease on staged image {}, leaving it to the new claimant", upload.storageKey);
+                    return;
+                }
+                delegate.delete(upload.storageKey);
+            }
+            deleteQuietly(staged);
+        } catch (RuntimeException ex) {
+            failed.increment();
+            int attempts = upload.attempts + 1;
+            Duration backoff = Duration.ofSeconds(1L << Math.min(attempts, 20));
+            Instant nextAttempt = Instant.now().plus(backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff);
+            log.warn("Failed to upload staged image {} (attempt {})", upload.storageKey, attempts, ex);
+            try {
+                jdbcTemplate.update(RETRY_SQL, attempts, Timestamp.from(nextAttempt), truncate(ex.getMessage()),
+                    upload.storageKey, upload.claimToken);
+            } catch (RuntimeException retryEx) {
+                log.warn("Failed to reschedule staged image {}", upload.storageKey, retryEx);
+            }
+        }
+    }
+
+    private static CustomizableThreadFactory daemonThreads(String prefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // an unreferenced staging file is harmless
+        }
+    }
+
+    private static String stagingFileName(String key) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private static final class PendingUpload {
+        private final String storageKey;
+        private final String stagingFile;
+        private final String originalFilename;
+        private final String contentType;
+        private final int attempts;
+        private final UUID claimToken;
+
+        private PendingUpload(String storageKey, String stagingFile, String originalFilename, String contentType, int attempts,
+                              UUID claimToken) {
+            this.storageKey = storageKey;
+            this.stagingFile = stagingFile;
+            this.originalFilename = originalFilename;
+            this.contentType = contentType;
+            this.attempts = attempts;
+            this.claimToken = claimToken;
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package com.example.ecommerce.web;
 
 import com.example.ecommerce.model.AppUser;
+import com.example.ecommerce.model.Product;
 import com.example.ecommerce.service.AppUserService;
+import com.example.ecommerce.service.ProductService;
 import java.util.List;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -16,9 +20,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class AdminController {
 
     private final AppUserService appUserService;
+    private final ProductService productService;
 
-    public AdminController(AppUserService appUserService) {
+    public AdminController(AppUserService appUserService, ProductService productService) {
         this.appUserService = appUserService;
+        this.productService = productService;
     }
 
     @GetMapping("/sellers")
@@ -30,4 +36,9 @@ public class AdminController {
     public AppUser approveSeller(@PathVariable Long id) {
         return appUserService.verifySeller(id);
     }
+
+    @PutMapping("/products/{id}/stock-slots")
+    public Product configureStockSlots(@PathVariable Long id, @RequestParam int slots) {
+        return productService.configureStockSlots(id, slots);
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.ecommerce.web;
 
+import com.example.ecommerce.model.AppUser;
 import com.example.ecommerce.service.AppUserService;
 import com.example.ecommerce.service.JwtService;
 import com.example.ecommerce.web.dto.AuthResponse;
@@ -10,12 +11,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -34,19 +35,15 @@ public class AuthController {
     @PostMapping("/register")
     @ResponseStatus(HttpStatus.CREATED)
     public AuthResponse register(@Valid @RequestBody RegisterRequest request) {
-        appUserService.register(request.getEmail(), request.getPassword());
-        UserDetails userDetails = appUserService.loadUserByUsername(request.getEmail());
-        String token = jwtService.generateToken(userDetails);
-        return new AuthResponse(token);
+        AppUser user = appUserService.register(request.getEmail(), request.getPassword());
+        return new AuthResponse(jwtService.generateToken(user));
     }
 
     @PostMapping("/register-seller")
     @ResponseStatus(HttpStatus.CREATED)
     public AuthResponse registerSeller(@Valid @RequestBody RegisterRequest request) {
-        appUserService.registerSeller(request.getEmail(), request.getPassword());
-        UserDetails userDetails = appUserService.loadUserByUsername(request.getEmail());
-        String token = jwtService.generateToken(userDetails);
-        return new AuthResponse(token);
+        AppUser user = appUserService.registerSeller(request.getEmail(), request.getPassword());
+        return new AuthResponse(jwtService.generateToken(user));
     }
 
     @PostMapping("/login")
@@ -54,8 +51,8 @@ public class AuthController {
         Authentication authentication = authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
         );
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String token = jwtService.generateToken(userDetails);
-        return new AuthResponse(token);
+        AppUser user = appUserService.findByEmail(authentication.getName())
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials"));
+        return new AuthResponse(jwtService.generateToken(user));
     }
 }
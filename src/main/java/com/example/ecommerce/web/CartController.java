@@ -4,24 +4,27 @@ import com.example.ecommerce.model.AppUser;
 import com.example.ecommerce.model.Cart;
 import com.example.ecommerce.model.CartItem;
 import com.example.ecommerce.model.Product;
+import com.example.ecommerce.security.AuthenticatedUser;
 import com.example.ecommerce.service.AppUserService;
 import com.example.ecommerce.service.CartService;
+import com.example.ecommerce.service.OrderService;
 import com.example.ecommerce.service.ProductService;
 import com.example.ecommerce.web.dto.AddToCartRequest;
 import com.example.ecommerce.web.dto.CartItemResponse;
 import com.example.ecommerce.web.dto.CartResponse;
+import com.example.ecommerce.web.dto.CheckoutRequest;
+import com.example.ecommerce.web.dto.OrderResponse;
 import jakarta.validation.Valid;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequestMapping("/api/cart")
@@ -30,27 +33,34 @@ public class CartController {
     private final AppUserService appUserService;
     private final ProductService productService;
     private final CartService cartService;
+    private final OrderService orderService;
+    private final OrderResponseAssembler orderResponseAssembler;
 
-    public CartController(AppUserService appUserService, ProductService productService, CartService cartService) {
+    public CartController(AppUserService appUserService,
+                          ProductService productService,
+                          CartService cartService,
+                          OrderService orderService,
+                          OrderResponseAssembler orderResponseAssembler) {
         this.appUserService = appUserService;
         this.productService = productService;
         this.cartService = cartService;
+        this.orderService = orderService;
+        this.orderResponseAssembler = orderResponseAssembler;
     }
 
     @PostMapping("/items")
     @ResponseStatus(HttpStatus.CREATED)
-    public CartItemResponse addToCart(@Valid @RequestBody AddToCartRequest request, Authentication authentication) {
-        AppUser user = appUserService.findByEmail(authentication.getName())
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+    public CartItemResponse addToCart(@Valid @RequestBody AddToCartRequest request,
+                                      @AuthenticationPrincipal AuthenticatedUser principal) {
+        AppUser user = appUserService.getReference(principal.getId());
         Product product = productService.getProduct(request.getProductId());
         CartItem item = cartService.addItem(user, product, request.getQuantity(), productService.priceFor(product));
         return toItemResponse(item);
     }
 
     @GetMapping
-    public CartResponse getCart(Authentication authentication) {
-        AppUser user = appUserService.findByEmail(authentication.getName())
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+    public CartResponse getCart(@AuthenticationPrincipal AuthenticatedUser principal) {
+        AppUser user = appUserService.getReference(principal.getId());
         Cart cart = cartService.getOrCreateActiveCart(user);
         CartResponse response = new CartResponse();
         response.setId(cart.getId());
@@ -61,6 +71,13 @@ public class CartController {
         return response;
     }
 
+    @PostMapping("/checkout")
+    @ResponseStatus(HttpStatus.CREATED)
+    public OrderResponse checkout(@Valid @RequestBody CheckoutRequest request,
+                                  @AuthenticationPrincipal AuthenticatedUser principal) {
+        return orderResponseAssembler.toResponse(orderService.checkout(principal.getId(), request.getShippingAddressId()));
+    }
+
     private CartItemResponse toItemResponse(CartItem item) {
         CartItemResponse response = new CartItemResponse();
         response.setId(item.getId());
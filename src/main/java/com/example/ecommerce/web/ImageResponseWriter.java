@@ -0,0 +1,133 @@
+package com.example.ecommerce.web;
+
+import com.example.ecommerce.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+@Component
+public class ImageResponseWriter {
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+    private final ProductService productService;
+
+    public ImageResponseWriter(ProductService productService) {
+        this.productService = productService;
+    }
+
+    public void write(HttpServletRequest request,
+                      HttpServletResponse response,
+                      String storageKey,
+                      String contentType,
+                      String etag,
+                      long lastModified,
+                      CacheControl cacheControl) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        response.setContentType(contentType);
+
+        Optional<Path> file = productService.getImageFile(storageKey);
+        if (file.isPresent()) {
+            writeFile(request, response, file.get(), etag);
+        } else {
+            writeResource(request, response, productService.getImageResource(storageKey));
+        }
+    }
+
+    private void writeFile(HttpServletRequest request, HttpServletResponse response, Path path, String etag)
+        throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            long start = 0;
+            long end = length - 1;
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+            String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+            if (rangeHeader != null && length > 0 && rangeApplies(request, etag)) {
+                List<HttpRange> ranges;
+                try {
+                    ranges = HttpRange.parseRanges(rangeHeader);
+                } catch (IllegalArgumentException ex) {
+                    ranges = List.of();
+                }
+                if (ranges.size() == 1) {
+                    HttpRange range = ranges.get(0);
+                    long rangeStart = range.getRangeStart(length);
+                    if (rangeStart >= length) {
+                        response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                        return;
+                    }
+                    start = rangeStart;
+                    end = range.getRangeEnd(length);
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            }
+
+            long count = end - start + 1;
+            response.setContentLengthLong(count);
+            if ("HEAD".equals(request.getMethod()) || count <= 0) {
+                return;
+            }
+
+            if (count >= SENDFILE_THRESHOLD && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+                request.setAttribute(SENDFILE_FILENAME_ATTR, path.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START_ATTR, start);
+                request.setAttribute(SENDFILE_END_ATTR, end + 1);
+                return;
+            }
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    private void writeResource(HttpServletRequest request, HttpServletResponse response, Resource resource)
+        throws IOException {
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "none");
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        try (InputStream in = resource.getInputStream()) {
+            OutputStream out = response.getOutputStream();
+            in.transferTo(out);
+        }
+    }
+
+    private boolean rangeApplies(HttpServletRequest request, String etag) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        return ifRange == null || ifRange.equals(etag);
+    }
+}
@@ -1,46 +1,115 @@
 package com.example.ecommerce.web;
 
-import com.example.ecommerce.model.Order;
+import com.example.ecommerce.model.OrderStatus;
+import com.example.ecommerce.repository.OrderFilter;
+import com.example.ecommerce.security.AuthenticatedUser;
+import com.example.ecommerce.service.IdempotencyStore;
+import com.example.ecommerce.service.OrderIntake;
+import com.example.ecommerce.service.OrderPage;
 import com.example.ecommerce.service.OrderService;
 import com.example.ecommerce.web.dto.CreateOrderRequest;
+import com.example.ecommerce.web.dto.OrderIntakeResponse;
+import com.example.ecommerce.web.dto.OrderPageResponse;
+import com.example.ecommerce.web.dto.OrderResponse;
 import jakarta.validation.Valid;
-import java.util.List;
+import java.time.Instant;
+import java.util.UUID;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderIntake orderIntake;
+    private final OrderResponseAssembler orderResponseAssembler;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService,
+                           OrderIntake orderIntake,
+                           OrderResponseAssembler orderResponseAssembler) {
         this.orderService = orderService;
+        this.orderIntake = orderIntake;
+        this.orderResponseAssembler = orderResponseAssembler;
     }
 
     @GetMapping
     @PreAuthorize("hasRole('OWNER')")
-    public List<Order> listOrders() {
-        return orderService.listOrders();
+    public OrderPageResponse listOrders(@RequestParam(required = false) OrderStatus status,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "20") int limit) {
+        OrderFilter filter = new OrderFilter();
+        filter.setStatus(status);
+        filter.setCreatedFrom(from);
+        filter.setCreatedTo(to);
+        OrderPage page = orderService.listOrders(filter, cursor, limit);
+
+        OrderPageResponse response = new OrderPageResponse();
+        response.setNextCursor(page.getNextCursor());
+        response.setItems(orderResponseAssembler.toResponses(page.getOrders()));
+        return response;
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('OWNER')")
-    public Order getOrder(@PathVariable Long id) {
-        return orderService.getOrder(id);
+    public OrderResponse getOrder(@PathVariable Long id) {
+        return orderResponseAssembler.toResponse(orderService.getOrder(id));
     }
 
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
     @PreAuthorize("hasRole('CUSTOMER')")
-    public Order createOrder(@Valid @RequestBody CreateOrderRequest request) {
-        return orderService.createOrder(request);
+    public ResponseEntity<?> createOrder(@Valid @RequestBody CreateOrderRequest request,
+                                         @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+                                         @AuthenticationPrincipal AuthenticatedUser user) {
+        if (idempotencyKey == null && orderIntake.isEnabled()) {
+            OrderIntake.Ticket ticket = orderIntake.submit(request, user.getId());
+            return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequestUri()
+                    .path("/intake/{handle}")
+                    .buildAndExpand(ticket.getHandle())
+                    .toUri())
+                .body(toIntakeResponse(ticket));
+        }
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .body(orderResponseAssembler.toResponse(orderService.createOrder(request)));
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyStore.MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid Idempotency-Key header");
+        }
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .body(orderResponseAssembler.toResponse(orderService.createOrder(request, user.getId(), idempotencyKey)));
+    }
+
+    @GetMapping("/intake/{handle}")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public OrderIntakeResponse getIntakeStatus(@PathVariable UUID handle,
+                                               @AuthenticationPrincipal AuthenticatedUser user) {
+        return toIntakeResponse(orderIntake.getTicket(handle, user.getId()));
+    }
+
+    private OrderIntakeResponse toIntakeResponse(OrderIntake.Ticket ticket) {
+        OrderIntakeResponse response = new OrderIntakeResponse();
+        response.setHandle(ticket.getHandle());
+        response.setStatus(ticket.getStatus());
+        response.setOrderId(ticket.getOrderId());
+        response.setError(ticket.getError());
+        response.setCreatedAt(ticket.getCreatedAt());
+        return response;
     }
 }
@@ -0,0 +1,94 @@
+package com.example.ecommerce.web;
+
+import com.example.ecommerce.model.Order;
+import com.example.ecommerce.model.OrderItem;
+import com.example.ecommerce.model.OrderShippingAddress;
+import com.example.ecommerce.model.SellerOrder;
+import com.example.ecommerce.service.OrderService;
+import com.example.ecommerce.web.dto.OrderItemResponse;
+import com.example.ecommerce.web.dto.OrderResponse;
+import com.example.ecommerce.web.dto.OrderShippingAddressResponse;
+import com.example.ecommerce.web.dto.SellerOrderResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OrderResponseAssembler {
+
+    private final OrderService orderService;
+
+    public OrderResponseAssembler(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    public OrderResponse toResponse(Order order) {
+        return toResponses(List.of(order)).get(0);
+    }
+
+    public List<OrderResponse> toResponses(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        List<Long> orderIds = orders.stream().map(Order::getId).collect(Collectors.toList());
+        Map<Long, List<OrderItem>> itemsByOrderId = orderService.listItemsByOrderIds(orderIds);
+        Map<Long, List<SellerOrder>> sellerOrdersByOrderId = orderService.listSellerOrdersByOrderIds(orderIds);
+        return orders.stream()
+            .map(order -> toResponse(
+                order,
+                itemsByOrderId.getOrDefault(order.getId(), List.of()),
+                sellerOrdersByOrderId.getOrDefault(order.getId(), List.of())))
+            .collect(Collectors.toList());
+    }
+
+    private OrderResponse toResponse(Order order, List<OrderItem> items, List<SellerOrder> sellerOrders) {
+        OrderResponse response = new OrderResponse();
+        response.setId(order.getId());
+        response.setBuyerId(order.getBuyer().getId());
+        response.setStatus(order.getStatus().name());
+        response.setTotalAmount(order.getTotalAmount());
+        response.setCreatedAt(order.getCreatedAt());
+        response.setShippingAddress(toResponse(order.getShippingAddress()));
+        response.setItems(items.stream().map(this::toResponse).collect(Collectors.toList()));
+        response.setSellerOrders(sellerOrders.stream().map(this::toResponse).collect(Collectors.toList()));
+        return response;
+    }
+
+    private OrderItemResponse toResponse(OrderItem item) {
+        OrderItemResponse response = new OrderItemResponse();
+        response.setId(item.getId());
+        response.setProductId(item.getProduct().getId());
+        response.setProductName(item.getProduct().getName());
+        response.setSellerOrderId(item.getSellerOrder() == null ? null : item.getSellerOrder().getId());
+        response.setQuantity(item.getQuantity());
+        response.setUnitPrice(item.getUnitPrice());
+        return response;
+    }
+
+    private SellerOrderResponse toResponse(SellerOrder sellerOrder) {
+        SellerOrderResponse response = new SellerOrderResponse();
+        response.setId(sellerOrder.getId());
+        response.setSellerId(sellerOrder.getSeller().getId());
+        response.setStatus(sellerOrder.getStatus().name());
+        response.setTotalAmount(sellerOrder.getTotalAmount());
+        response.setCreatedAt(sellerOrder.getCreatedAt());
+        return response;
+    }
+
+    private OrderShippingAddressResponse toResponse(OrderShippingAddress address) {
+        if (address == null) {
+            return null;
+        }
+        OrderShippingAddressResponse response = new OrderShippingAddressResponse();
+        response.setName(address.getName());
+        response.setLine1(address.getLine1());
+        response.setLine2(address.getLine2());
+        response.setCity(address.getCity());
+        response.setRegion(address.getRegion());
+        response.setPostalCode(address.getPostalCode());
+        response.setCountry(address.getCountry());
+        response.setPhoneNumber(address.getPhoneNumber());
+        return response;
+    }
+}
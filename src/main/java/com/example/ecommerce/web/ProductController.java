@@ -1,68 +1,113 @@
 package com.example.ecommerce.web;
 
-import com.example.ecommerce.model.AppUser;
 import com.example.ecommerce.model.Product;
 import com.example.ecommerce.model.ProductImage;
-import com.example.ecommerce.service.AppUserService;
+import com.example.ecommerce.model.ProductImageVariant;
+import com.example.ecommerce.repository.ProductFilter;
+import com.example.ecommerce.repository.ProductSort;
+import com.example.ecommerce.security.AuthenticatedUser;
+import com.example.ecommerce.service.ImageFingerprint;
+import com.example.ecommerce.service.ImageMetadata;
+import com.example.ecommerce.service.ProductPage;
 import com.example.ecommerce.service.ProductService;
+import com.example.ecommerce.service.ProductView;
+import com.example.ecommerce.web.dto.ProductPageResponse;
+import com.example.ecommerce.web.dto.ProductPatchRequest;
 import com.example.ecommerce.web.dto.ProductRequest;
 import com.example.ecommerce.web.dto.ProductResponse;
+import com.example.ecommerce.web.dto.ProductSearchResponse;
 import com.example.ecommerce.web.dto.ProductImageResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
-import org.springframework.core.io.Resource;
 import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
     private final ProductService productService;
-    private final AppUserService appUserService;
+    private final ImageResponseWriter imageResponseWriter;
 
-    public ProductController(ProductService productService, AppUserService appUserService) {
+    public ProductController(ProductService productService, ImageResponseWriter imageResponseWriter) {
         this.productService = productService;
-        this.appUserService = appUserService;
+        this.imageResponseWriter = imageResponseWriter;
     }
 
     @GetMapping
-    public List<ProductResponse> listProducts() {
-        List<Product> products = productService.listProducts();
+    public ProductPageResponse listProducts(@RequestParam(required = false) Long sellerId,
+                                            @RequestParam(required = false) BigDecimal minPrice,
+                                            @RequestParam(required = false) BigDecimal maxPrice,
+                                            @RequestParam(defaultValue = "false") boolean inStock,
+                                            @RequestParam(defaultValue = "NEWEST") ProductSort sort,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "20") int limit) {
+        ProductFilter filter = new ProductFilter();
+        filter.setSellerId(sellerId);
+        filter.setMinPrice(minPrice);
+        filter.setMaxPrice(maxPrice);
+        filter.setInStock(inStock);
+        ProductPage page = productService.listProducts(filter, sort, cursor, limit);
+
+        ProductPageResponse response = new ProductPageResponse();
+        response.setNextCursor(page.getNextCursor());
+        List<Product> products = page.getProducts();
         if (products.isEmpty()) {
-            return List.of();
+            response.setItems(List.of());
+            return response;
         }
         Map<Long, List<ProductImage>> imagesByProductId = productService.listImagesByProductIds(
             products.stream().map(Product::getId).collect(Collectors.toList())
         );
-        return products.stream()
+        response.setItems(products.stream()
             .map(product -> toResponse(product, imagesByProductId.get(product.getId())))
-            .collect(Collectors.toList());
+            .collect(Collectors.toList()));
+        return response;
     }
 
 
 
+    @GetMapping("/search")
+    public List<ProductSearchResponse> searchProducts(@RequestParam("q") String query,
+                                                      @RequestParam(defaultValue = "20") int limit) {
+        return productService.searchProducts(query, limit).stream()
+            .map(hit -> {
+                ProductSearchResponse response = new ProductSearchResponse();
+                response.setId(hit.getProductId());
+                response.setName(hit.getName());
+                response.setPrice(hit.getPrice());
+                response.setScore(hit.getScore());
+                return response;
+            })
+            .collect(Collectors.toList());
+    }
+
     @GetMapping("/{id}")
     public ProductResponse getProduct(@PathVariable Long id) {
-        Product product = productService.getProduct(id);
-        return toResponse(product, productService.listImages(id));
+        return toResponse(productService.getProductView(id));
     }
 
 
@@ -71,9 +116,7 @@ public class ProductController {
     @PreAuthorize("hasRole('OWNER') or hasRole('SELLER')")
     public ResponseEntity<ProductResponse> createProduct(@Valid @RequestPart("product") ProductRequest request,
                                                          @RequestPart("images") List<MultipartFile> images,
-                                                         Authentication authentication) {
-        AppUser seller = appUserService.findByEmail(authentication.getName())
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+                                                         @AuthenticationPrincipal AuthenticatedUser seller) {
         Product product = productService.createProduct(request, seller, images);
         ProductResponse response = toResponse(product, productService.listImages(product.getId()));
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -87,32 +130,86 @@ public class ProductController {
     public ProductResponse updateProduct(@PathVariable Long id,
                                          @Valid @RequestPart("product") ProductRequest request,
                                          @RequestPart("images") List<MultipartFile> images,
-                                         Authentication authentication) {
-        AppUser seller = appUserService.findByEmail(authentication.getName())
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+                                         @AuthenticationPrincipal AuthenticatedUser seller) {
         Product product = productService.updateProduct(id, request, seller, images);
         return toResponse(product, productService.listImages(product.getId()));
     }
 
+    @PatchMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('OWNER') or hasRole('SELLER')")
+    public ProductResponse patchProduct(@PathVariable Long id,
+                                        @Valid @RequestBody ProductPatchRequest request,
+                                        @AuthenticationPrincipal AuthenticatedUser seller) {
+        Product product = productService.patchProduct(id, request, seller, List.of());
+        return toResponse(product, productService.listImages(product.getId()));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('OWNER') or hasRole('SELLER')")
+    public ProductResponse patchProductWithImages(@PathVariable Long id,
+                                                  @Valid @RequestPart(value = "product", required = false) ProductPatchRequest request,
+                                                  @RequestPart(value = "images", required = false) List<MultipartFile> images,
+                                                  @AuthenticationPrincipal AuthenticatedUser seller) {
+        Product product = productService.patchProduct(id, request, seller, images);
+        return toResponse(product, productService.listImages(product.getId()));
+    }
+
 
 
 
     @GetMapping("/images/{imageId}")
-    public ResponseEntity<Resource> getImage(@PathVariable Long imageId) {
-        ProductImage image = productService.getImage(imageId);
-        Resource resource = productService.getImageResource(image);
-        long lastModified = image.getCreatedAt().toEpochMilli();
+    public void getImage(@PathVariable Long imageId,
+                         @RequestParam(name = "w", required = false) Integer width,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        writeImage(productService.getImageMetadata(imageId), width,
+            CacheControl.maxAge(Duration.ofHours(1)).cachePrivate(), request, response);
+    }
+
+    @GetMapping("/images/{imageId}/{fingerprint}")
+    public void getFingerprintedImage(@PathVariable Long imageId,
+                                      @PathVariable String fingerprint,
+                                      @RequestParam(name = "w", required = false) Integer width,
+                                      HttpServletRequest request,
+                                      HttpServletResponse response) throws IOException {
+        writeImage(productService.getImageMetadata(imageId, fingerprint), width,
+            CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable(), request, response);
+    }
+
+    private void writeImage(ImageMetadata image,
+                            Integer width,
+                            CacheControl cacheControl,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        ProductImageVariant variant = width == null ? null : productService.findVariant(image.getId(), width).orElse(null);
+        if (variant != null) {
+            long lastModified = variant.getCreatedAt().toEpochMilli();
+            String etag = "\"" + image.getId() + "-w" + variant.getWidth() + "-" + lastModified + "-" + variant.getSize() + "\"";
+            imageResponseWriter.write(request, response, variant.getStorageKey(), variant.getContentType(),
+                etag, lastModified, cacheControl);
+            return;
+        }
+        long lastModified = image.getCreatedAtMillis();
         String etag = "\"" + image.getId() + "-" + lastModified + "-" + image.getSize() + "\"";
-        return ResponseEntity.ok()
-            .contentType(MediaType.parseMediaType(image.getContentType()))
-            .cacheControl(CacheControl.maxAge(Duration.ofHours(1)).cachePrivate())
-            .eTag(etag)
-            .lastModified(lastModified)
-            .body(resource);
+        imageResponseWriter.write(request, response, image.getStorageKey(), image.getContentType(),
+            etag, lastModified, width == null ? cacheControl : CacheControl.noCache());
     }
 
 
 
+    private ProductResponse toResponse(ProductView view) {
+        ProductResponse response = new ProductResponse();
+        response.setId(view.getId());
+        response.setName(view.getName());
+        response.setDescription(view.getDescription());
+        response.setPrice(view.getPrice());
+        response.setStockQuantity(view.getStockQuantity());
+        response.setImages(view.getImages().stream()
+            .map(image -> ProductImageResponse.of(image.getId(), image.getFingerprint()))
+            .collect(Collectors.toList()));
+        return response;
+    }
+
     private ProductResponse toResponse(Product product, List<ProductImage> images) {
         ProductResponse response = new ProductResponse();
         response.setId(product.getId());
@@ -125,7 +222,7 @@ public class ProductController {
             return response;
         }
         response.setImages(images.stream()
-            .map(image -> new ProductImageResponse(image.getId(), "/api/products/images/" + image.getId()))
+            .map(image -> ProductImageResponse.of(image.getId(), ImageFingerprint.of(image)))
             .collect(Collectors.toList()));
         return response;
     }
@@ -1,40 +1,34 @@
 package com.example.ecommerce.web;
 
-import com.example.ecommerce.model.AppUser;
 import com.example.ecommerce.model.Product;
 import com.example.ecommerce.model.ProductImage;
-import com.example.ecommerce.service.AppUserService;
+import com.example.ecommerce.security.AuthenticatedUser;
+import com.example.ecommerce.service.ImageFingerprint;
 import com.example.ecommerce.service.ProductService;
 import com.example.ecommerce.web.dto.ProductImageResponse;
 import com.example.ecommerce.web.dto.ProductResponse;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
-import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequestMapping("/api/seller")
 @PreAuthorize("hasRole('SELLER')")
 public class SellerController {
 
-    private final AppUserService appUserService;
     private final ProductService productService;
 
-    public SellerController(AppUserService appUserService, ProductService productService) {
-        this.appUserService = appUserService;
+    public SellerController(ProductService productService) {
         this.productService = productService;
     }
 
     @GetMapping("/products")
-    public List<ProductResponse> listMyProducts(Authentication authentication) {
-        AppUser seller = appUserService.findByEmail(authentication.getName())
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+    public List<ProductResponse> listMyProducts(@AuthenticationPrincipal AuthenticatedUser seller) {
         List<Product> products = productService.listSellerProducts(seller.getId());
         if (products.isEmpty()) {
             return List.of();
@@ -59,7 +53,7 @@ public class SellerController {
             return response;
         }
         response.setImages(images.stream()
-            .map(image -> new ProductImageResponse(image.getId(), "/api/products/images/" + image.getId()))
+            .map(image -> ProductImageResponse.of(image.getId(), ImageFingerprint.of(image)))
             .collect(Collectors.toList()));
         return response;
     }
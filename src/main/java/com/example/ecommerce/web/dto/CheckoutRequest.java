@@ -0,0 +1,17 @@
+package com.example.ecommerce.web.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public class CheckoutRequest {
+
+    @NotNull
+    private Long shippingAddressId;
+
+    public Long getShippingAddressId() {
+        return shippingAddressId;
+    }
+
+    public void setShippingAddressId(Long shippingAddressId) {
+        this.shippingAddressId = shippingAddressId;
+    }
+}
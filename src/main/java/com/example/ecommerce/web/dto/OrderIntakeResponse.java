@@ -0,0 +1,52 @@
+package com.example.ecommerce.web.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public class OrderIntakeResponse {
+    private UUID handle;
+    private String status;
+    private Long orderId;
+    private String error;
+    private Instant createdAt;
+
+    public UUID getHandle() {
+        return handle;
+    }
+
+    public void setHandle(UUID handle) {
+        this.handle = handle;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
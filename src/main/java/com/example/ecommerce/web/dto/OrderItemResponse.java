@@ -0,0 +1,60 @@
+package com.example.ecommerce.web.dto;
+
+import java.math.BigDecimal;
+
+public class OrderItemResponse {
+    private Long id;
+    private Long productId;
+    private String productName;
+    private Long sellerOrderId;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public Long getSellerOrderId() {
+        return sellerOrderId;
+    }
+
+    public void setSellerOrderId(Long sellerOrderId) {
+        this.sellerOrderId = sellerOrderId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+
+    public void setUnitPrice(BigDecimal unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+}
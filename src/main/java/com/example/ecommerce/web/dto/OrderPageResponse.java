@@ -0,0 +1,24 @@
+package com.example.ecommerce.web.dto;
+
+import java.util.List;
+
+public class OrderPageResponse {
+    private List<OrderResponse> items;
+    private String nextCursor;
+
+    public List<OrderResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderResponse> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.ecommerce.web.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public class OrderResponse {
+    private Long id;
+    private Long buyerId;
+    private String status;
+    private BigDecimal totalAmount;
+    private Instant createdAt;
+    private OrderShippingAddressResponse shippingAddress;
+    private List<OrderItemResponse> items;
+    private List<SellerOrderResponse> sellerOrders;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBuyerId() {
+        return buyerId;
+    }
+
+    public void setBuyerId(Long buyerId) {
+        this.buyerId = buyerId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public OrderShippingAddressResponse getShippingAddress() {
+        return shippingAddress;
+    }
+
+    public void setShippingAddress(OrderShippingAddressResponse shippingAddress) {
+        this.shippingAddress = shippingAddress;
+    }
+
+    public List<OrderItemResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderItemResponse> items) {
+        this.items = items;
+    }
+
+    public List<SellerOrderResponse> getSellerOrders() {
+        return sellerOrders;
+    }
+
+    public void setSellerOrders(List<SellerOrderResponse> sellerOrders) {
+        this.sellerOrders = sellerOrders;
+    }
+}
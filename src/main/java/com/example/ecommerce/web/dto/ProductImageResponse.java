@@ -12,6 +12,10 @@ public class ProductImageResponse {
         this.url = url;
     }
 
+    public static ProductImageResponse of(Long id, String fingerprint) {
+        return new ProductImageResponse(id, "/api/products/images/" + id + "/" + fingerprint);
+    }
+
     public Long getId() {
         return id;
     }
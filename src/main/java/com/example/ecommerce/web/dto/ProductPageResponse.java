@@ -0,0 +1,24 @@
+package com.example.ecommerce.web.dto;
+
+import java.util.List;
+
+public class ProductPageResponse {
+    private List<ProductResponse> items;
+    private String nextCursor;
+
+    public List<ProductResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ProductResponse> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
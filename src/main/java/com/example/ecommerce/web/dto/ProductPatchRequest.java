@@ -0,0 +1,73 @@
+package com.example.ecommerce.web.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import java.math.BigDecimal;
+import java.util.List;
+
+public class ProductPatchRequest {
+
+    @Pattern(regexp = ".*\\S.*")
+    private String name;
+
+    private String description;
+
+    @DecimalMin("0.0")
+    private BigDecimal price;
+
+    @Min(0)
+    private Integer stockQuantity;
+
+    private List<Long> removeImageIds;
+
+    private List<Long> imageOrder;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public List<Long> getRemoveImageIds() {
+        return removeImageIds;
+    }
+
+    public void setRemoveImageIds(List<Long> removeImageIds) {
+        this.removeImageIds = removeImageIds;
+    }
+
+    public List<Long> getImageOrder() {
+        return imageOrder;
+    }
+
+    public void setImageOrder(List<Long> imageOrder) {
+        this.imageOrder = imageOrder;
+    }
+}
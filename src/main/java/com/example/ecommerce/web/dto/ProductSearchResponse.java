@@ -0,0 +1,42 @@
+package com.example.ecommerce.web.dto;
+
+import java.math.BigDecimal;
+
+public class ProductSearchResponse {
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private float score;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    public void setScore(float score) {
+        this.score = score;
+    }
+}
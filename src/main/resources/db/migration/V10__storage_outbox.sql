@@ -0,0 +1,13 @@
+CREATE TABLE storage_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    storage_key VARCHAR(255) NOT NULL,
+    attempts INT NOT NULL,
+    next_attempt_at TIMESTAMPTZ NOT NULL,
+    last_error TEXT,
+    created_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX storage_outbox_next_attempt_at_idx ON storage_outbox(next_attempt_at, id);
+CREATE INDEX storage_outbox_storage_key_idx ON storage_outbox(storage_key);
+CREATE INDEX product_images_storage_key_idx ON product_images(storage_key);
+CREATE INDEX product_image_variants_storage_key_idx ON product_image_variants(storage_key);
@@ -0,0 +1,14 @@
+CREATE TABLE pending_uploads (
+    storage_key VARCHAR(255) PRIMARY KEY,
+    staging_file VARCHAR(255) NOT NULL,
+    staged_on VARCHAR(255) NOT NULL,
+    original_filename VARCHAR(512),
+    content_type VARCHAR(255) NOT NULL,
+    size BIGINT NOT NULL,
+    attempts INT NOT NULL,
+    next_attempt_at TIMESTAMPTZ NOT NULL,
+    last_error TEXT,
+    created_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX pending_uploads_staged_on_next_attempt_at_idx ON pending_uploads(staged_on, next_attempt_at);
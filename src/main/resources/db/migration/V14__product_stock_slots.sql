@@ -0,0 +1,8 @@
+ALTER TABLE products ADD COLUMN stock_slots INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE product_stock_slots (
+    product_id BIGINT NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    slot INTEGER NOT NULL,
+    quantity INTEGER NOT NULL CHECK (quantity >= 0),
+    PRIMARY KEY (product_id, slot)
+);
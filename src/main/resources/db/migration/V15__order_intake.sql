@@ -0,0 +1,15 @@
+CREATE TABLE order_intake (
+    id BIGSERIAL PRIMARY KEY,
+    handle UUID NOT NULL UNIQUE,
+    user_id BIGINT NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL,
+    claimed_until TIMESTAMPTZ,
+    order_id BIGINT REFERENCES orders(id) ON DELETE SET NULL,
+    error TEXT,
+    created_at TIMESTAMPTZ NOT NULL,
+    processed_at TIMESTAMPTZ
+);
+
+CREATE INDEX order_intake_open_idx ON order_intake(id) WHERE status IN ('PENDING', 'PROCESSING');
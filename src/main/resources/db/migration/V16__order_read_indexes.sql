@@ -0,0 +1,4 @@
+CREATE INDEX orders_created_at_id_idx ON orders(created_at DESC, id DESC);
+CREATE INDEX orders_status_created_at_id_idx ON orders(status, created_at DESC, id DESC);
+CREATE INDEX order_items_order_id_idx ON order_items(order_id);
+CREATE INDEX seller_orders_order_id_idx ON seller_orders(order_id);
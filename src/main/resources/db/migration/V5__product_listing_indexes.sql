@@ -0,0 +1,9 @@
+CREATE INDEX products_price_id_idx ON products(price, id);
+
+CREATE INDEX products_seller_id_id_idx ON products(seller_id, id);
+
+CREATE INDEX products_seller_id_price_id_idx ON products(seller_id, price, id);
+
+CREATE INDEX products_in_stock_id_idx ON products(id) WHERE stock_quantity > 0;
+
+CREATE INDEX products_in_stock_price_id_idx ON products(price, id) WHERE stock_quantity > 0;
@@ -0,0 +1,12 @@
+ALTER SEQUENCE app_users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE products_id_seq INCREMENT BY 50;
+ALTER SEQUENCE orders_id_seq INCREMENT BY 50;
+ALTER SEQUENCE order_items_id_seq INCREMENT BY 50;
+ALTER SEQUENCE seller_profiles_id_seq INCREMENT BY 50;
+ALTER SEQUENCE addresses_id_seq INCREMENT BY 50;
+ALTER SEQUENCE order_shipping_addresses_id_seq INCREMENT BY 50;
+ALTER SEQUENCE seller_orders_id_seq INCREMENT BY 50;
+ALTER SEQUENCE carts_id_seq INCREMENT BY 50;
+ALTER SEQUENCE cart_items_id_seq INCREMENT BY 50;
+ALTER SEQUENCE reviews_id_seq INCREMENT BY 50;
+ALTER SEQUENCE product_images_id_seq INCREMENT BY 50;
@@ -0,0 +1,13 @@
+CREATE TABLE product_image_variants (
+    id BIGSERIAL PRIMARY KEY,
+    image_id BIGINT NOT NULL REFERENCES product_images(id) ON DELETE CASCADE,
+    width INT NOT NULL,
+    height INT NOT NULL,
+    storage_key VARCHAR(255) NOT NULL UNIQUE,
+    content_type VARCHAR(255) NOT NULL,
+    size BIGINT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL,
+    UNIQUE (image_id, width)
+);
+
+ALTER SEQUENCE product_image_variants_id_seq INCREMENT BY 50;
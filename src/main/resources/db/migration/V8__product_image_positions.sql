@@ -0,0 +1,12 @@
+ALTER TABLE product_images ADD COLUMN position INT NOT NULL DEFAULT 0;
+
+UPDATE product_images pi
+SET position = ranked.position
+FROM (
+    SELECT id, ROW_NUMBER() OVER (PARTITION BY product_id ORDER BY id) - 1 AS position
+    FROM product_images
+) ranked
+WHERE pi.id = ranked.id;
+
+DROP INDEX product_images_product_id_idx;
+CREATE INDEX product_images_product_id_position_idx ON product_images(product_id, position, id);
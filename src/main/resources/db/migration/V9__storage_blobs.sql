@@ -0,0 +1,9 @@
+CREATE TABLE storage_blobs (
+    hash CHAR(64) PRIMARY KEY,
+    size BIGINT NOT NULL,
+    ref_count INT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL
+);
+
+ALTER TABLE product_images DROP CONSTRAINT product_images_storage_key_key;
+ALTER TABLE product_image_variants DROP CONSTRAINT product_image_variants_storage_key_key;